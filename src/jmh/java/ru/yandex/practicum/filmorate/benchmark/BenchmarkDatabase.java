@@ -0,0 +1,115 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import ru.yandex.practicum.filmorate.dal.film.FilmResultSetExtractor;
+import ru.yandex.practicum.filmorate.dal.film.FilmRowMapper;
+import ru.yandex.practicum.filmorate.dal.user.UserResultSetExtractor;
+import ru.yandex.practicum.filmorate.dal.user.UserRowMapper;
+import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.film.FilmPopularityIndex;
+import ru.yandex.practicum.filmorate.storage.film.TrendingIndex;
+import ru.yandex.practicum.filmorate.storage.seed.DataSeeder;
+import ru.yandex.practicum.filmorate.storage.seed.SeedSpec;
+import ru.yandex.practicum.filmorate.storage.user.FriendGraph;
+import ru.yandex.practicum.filmorate.storage.user.UserDbStorage;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Встроенная H2 с примененными миграциями, заполненная {@link DataSeeder} для бенчмарков.
+ * Последний пользователь лайков не ставит и используется бенчмарками записи.
+ */
+public final class BenchmarkDatabase implements AutoCloseable {
+    private static final int FRIENDS_PER_USER = 20;
+    private static final double EXPONENT = 1.0;
+    private static final long SEED = 42;
+    private static final Duration TRENDING_BUCKET = Duration.ofMinutes(5);
+    private static final List<Duration> TRENDING_WINDOWS = List.of(Duration.ofHours(1), Duration.ofDays(1), Duration.ofDays(7));
+    private static final Duration TRENDING_HALF_LIFE = Duration.ofHours(6);
+
+    private final String url;
+    private final JdbcTemplate jdbc;
+    private final int films;
+    private final int users;
+
+    private BenchmarkDatabase(String url, JdbcTemplate jdbc, int films, int users) {
+        this.url = url;
+        this.jdbc = jdbc;
+        this.films = films;
+        this.users = users;
+    }
+
+    public static BenchmarkDatabase create(int likes) {
+        String url = "jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(url, "sa", "");
+        Flyway.configure().dataSource(dataSource).load().migrate();
+
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        int films = Math.max(100, likes / 100);
+        int users = Math.max(1000, likes / 20);
+        new DataSeeder(jdbc).seed(new SeedSpec(users, films, likes, FRIENDS_PER_USER, EXPONENT, SEED));
+        jdbc.update("INSERT INTO users (email, login, name, birthday) VALUES (?, ?, ?, ?)",
+                "spare@bench.ru", "spare", "Spare", Date.valueOf(LocalDate.of(1990, 1, 1)));
+        return new BenchmarkDatabase(url, jdbc, films, users + 1);
+    }
+
+    public JdbcTemplate jdbc() {
+        return jdbc;
+    }
+
+    public int films() {
+        return films;
+    }
+
+    public int users() {
+        return users;
+    }
+
+    public long spareUserId() {
+        return users;
+    }
+
+    /**
+     * Пул Hikari заданного размера над той же БД.
+     */
+    public HikariDataSource pool(int size) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername("sa");
+        dataSource.setPassword("");
+        dataSource.setMaximumPoolSize(size);
+        dataSource.setMinimumIdle(size);
+        return dataSource;
+    }
+
+    public FilmDbStorage filmStorage() {
+        return filmStorage(jdbc);
+    }
+
+    public FilmDbStorage filmStorage(JdbcTemplate jdbc) {
+        FilmDbStorage storage = new FilmDbStorage(jdbc, new FilmResultSetExtractor(new FilmRowMapper()),
+                new FilmPopularityIndex(), new TrendingIndex(true, TRENDING_BUCKET, TRENDING_WINDOWS, TRENDING_HALF_LIFE),
+                true, 500);
+        storage.init();
+        return storage;
+    }
+
+    public UserDbStorage userStorage() {
+        UserDbStorage storage = new UserDbStorage(jdbc, new UserResultSetExtractor(new UserRowMapper()),
+                new FriendGraph(), true, 500);
+        storage.loadFriendGraph();
+        return storage;
+    }
+
+    @Override
+    public void close() {
+        jdbc.execute("SHUTDOWN");
+    }
+}
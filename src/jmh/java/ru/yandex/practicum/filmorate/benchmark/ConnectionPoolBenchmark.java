@@ -0,0 +1,57 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность хранилища фильмов в зависимости от размера пула при 64 конкурентных потоках.
+ * Смесь операций - 9 чтений на одну запись, как у типичной нагрузки на API.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(64)
+@Fork(1)
+public class ConnectionPoolBenchmark {
+    @Param({"2", "4", "8", "16", "32"})
+    public int poolSize;
+
+    @Param({"100000"})
+    public int likes;
+
+    private BenchmarkDatabase database;
+    private HikariDataSource pool;
+    private FilmDbStorage filmStorage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = BenchmarkDatabase.create(likes);
+        pool = database.pool(poolSize);
+        filmStorage = database.filmStorage(new JdbcTemplate(pool));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.close();
+        database.close();
+    }
+
+    @Benchmark
+    public void mixedLoad(Blackhole blackhole) {
+        long filmId = ThreadLocalRandom.current().nextLong(1, database.films() + 1);
+        if (ThreadLocalRandom.current().nextInt(10) == 0) {
+            long userId = ThreadLocalRandom.current().nextLong(1, database.users() + 1);
+            blackhole.consume(filmStorage.addLike(filmId, userId) && filmStorage.removeLike(filmId, userId));
+        } else {
+            blackhole.consume(filmStorage.getFilmById(filmId));
+        }
+    }
+}
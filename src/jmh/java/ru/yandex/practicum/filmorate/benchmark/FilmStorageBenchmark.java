@@ -0,0 +1,74 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilmStorageBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int likes;
+
+    private BenchmarkDatabase database;
+    private FilmDbStorage filmStorage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = BenchmarkDatabase.create(likes);
+        filmStorage = database.filmStorage();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public void getFilmById(Blackhole blackhole) {
+        blackhole.consume(filmStorage.getFilmById(randomFilmId()));
+    }
+
+    @Benchmark
+    public void getAll(Blackhole blackhole) {
+        blackhole.consume(filmStorage.getAll());
+    }
+
+    @Benchmark
+    public void getPopularFilms(Blackhole blackhole) {
+        blackhole.consume(filmStorage.getPopularFilms(10));
+    }
+
+    @Benchmark
+    public void getPopularSummaries(Blackhole blackhole) {
+        blackhole.consume(filmStorage.getPopularSummaries(10));
+    }
+
+    @Benchmark
+    public void getTrendingSummaries(Blackhole blackhole) {
+        blackhole.consume(filmStorage.getTrendingSummaries(Duration.ofDays(1), 10));
+    }
+
+    /**
+     * Лайк и его снятие парой, чтобы объем данных не менялся между итерациями.
+     * Пользователь без засеянных лайков, поэтому оба вызова реально меняют данные.
+     */
+    @Benchmark
+    public void addAndRemoveLike(Blackhole blackhole) {
+        long filmId = randomFilmId();
+        long userId = database.spareUserId();
+        blackhole.consume(filmStorage.addLike(filmId, userId) && filmStorage.removeLike(filmId, userId));
+    }
+
+    private long randomFilmId() {
+        return ThreadLocalRandom.current().nextLong(1, database.films() + 1);
+    }
+}
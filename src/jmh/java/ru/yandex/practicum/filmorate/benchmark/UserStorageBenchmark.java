@@ -0,0 +1,54 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.yandex.practicum.filmorate.storage.user.UserDbStorage;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserStorageBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int likes;
+
+    private BenchmarkDatabase database;
+    private UserDbStorage userStorage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = BenchmarkDatabase.create(likes);
+        userStorage = database.userStorage();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public void getFriends(Blackhole blackhole) {
+        blackhole.consume(userStorage.getFriends(randomUserId()));
+    }
+
+    @Benchmark
+    public void getCommonFriends(Blackhole blackhole) {
+        blackhole.consume(userStorage.getCommonFriends(randomUserId(), randomUserId()));
+    }
+
+    @Benchmark
+    public void addAndDeleteFriend(Blackhole blackhole) {
+        long userId = randomUserId();
+        long friendId = randomUserId();
+        blackhole.consume(userStorage.addFriend(userId, friendId) && userStorage.deleteFriend(userId, friendId));
+    }
+
+    private long randomUserId() {
+        return ThreadLocalRandom.current().nextLong(1, database.users() + 1);
+    }
+}
@@ -0,0 +1,78 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.pool.ConnectionLimitingDataSource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Волна из {@code requests} одновременных лайков на пуле платформенных потоков (как у Tomcat по умолчанию)
+ * и на виртуальных потоках. Пул соединений один и тот же и закрыт семафором, как в режиме виртуальных потоков.
+ * Память сравнивается запуском с {@code -prof gc}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VirtualThreadLoadBenchmark {
+    private static final int PLATFORM_THREADS = 200;
+    private static final int POOL_SIZE = 10;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"1000", "5000"})
+    public int requests;
+
+    private BenchmarkDatabase database;
+    private HikariDataSource pool;
+    private FilmDbStorage filmStorage;
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = BenchmarkDatabase.create(100_000);
+        pool = database.pool(POOL_SIZE);
+        filmStorage = database.filmStorage(new JdbcTemplate(
+                new ConnectionLimitingDataSource(pool, POOL_SIZE, Duration.ofSeconds(30))));
+        executor = "virtual".equals(threads)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(PLATFORM_THREADS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+        pool.close();
+        database.close();
+    }
+
+    @Benchmark
+    public int likeWave() throws InterruptedException, ExecutionException {
+        List<Future<Boolean>> futures = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            futures.add(executor.submit(this::likeAndUnlike));
+        }
+        int changed = 0;
+        for (Future<Boolean> future : futures) {
+            if (future.get()) {
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    private boolean likeAndUnlike() {
+        long filmId = ThreadLocalRandom.current().nextLong(1, database.films() + 1);
+        long userId = ThreadLocalRandom.current().nextLong(1, database.users() + 1);
+        return filmStorage.addLike(filmId, userId) && filmStorage.removeLike(filmId, userId);
+    }
+}
@@ -0,0 +1,51 @@
+package ru.yandex.practicum.filmorate.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import ru.yandex.practicum.filmorate.storage.routing.ReadWriteRoutingDataSource;
+
+import javax.sql.DataSource;
+
+/**
+ * Два пула Hikari над одной БД: основной ({@code spring.datasource.hikari.*}) и только для чтения
+ * ({@code filmorate.datasource.read-only.hikari.*}), чтобы тяжелые GET-запросы не занимали соединения записи.
+ * Маршрутизатор закрыт {@link LazyConnectionDataSourceProxy}: менеджер транзакций берет соединение до того,
+ * как отметит транзакцию активной, а настоящее соединение выбирается только при первом запросе.
+ */
+@Configuration
+@ConditionalOnProperty(name = "filmorate.datasource.read-only-routing.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource readWriteDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("filmorate.datasource.read-only.hikari")
+    public HikariDataSource readOnlyDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("readWriteDataSource") DataSource readWrite,
+                                 @Qualifier("readOnlyDataSource") DataSource readOnly) {
+        ReadWriteRoutingDataSource router = new ReadWriteRoutingDataSource(readWrite, readOnly);
+        router.afterPropertiesSet();
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(router);
+        // Настройки соединения по умолчанию читаются сразу из основного пула, а не при первой транзакции
+        proxy.checkDefaultConnectionProperties();
+        return proxy;
+    }
+}
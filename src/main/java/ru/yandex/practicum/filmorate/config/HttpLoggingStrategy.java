@@ -0,0 +1,68 @@
+package ru.yandex.practicum.filmorate.config;
+
+import org.zalando.logbook.HttpRequest;
+import org.zalando.logbook.HttpResponse;
+import org.zalando.logbook.Strategy;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Стратегия Logbook, решающая до обработки запроса, нужно ли буферизовать тела.
+ * Тело, которое не будет записано в лог, не копируется вовсе.
+ */
+public class HttpLoggingStrategy implements Strategy {
+    private static final ThreadLocal<Boolean> BODY_LOGGED = new ThreadLocal<>();
+
+    private final Mode mode;
+    private final double sampleRate;
+    private final Set<String> bodyExcludedPaths;
+
+    public HttpLoggingStrategy(Mode mode, double sampleRate, Set<String> bodyExcludedPaths) {
+        this.mode = mode;
+        this.sampleRate = sampleRate;
+        this.bodyExcludedPaths = bodyExcludedPaths;
+    }
+
+    @Override
+    public HttpRequest process(HttpRequest request) throws IOException {
+        boolean logBody = switch (mode) {
+            case HEADERS -> false;
+            case SAMPLED -> ThreadLocalRandom.current().nextDouble() < sampleRate;
+            case FULL -> true;
+        };
+        BODY_LOGGED.set(logBody);
+        return logBody ? request.withBody() : request.withoutBody();
+    }
+
+    @Override
+    public HttpResponse process(HttpRequest request, HttpResponse response) throws IOException {
+        Boolean logBody = BODY_LOGGED.get();
+        BODY_LOGGED.remove();
+        // Ответ может обрабатываться в другом потоке (async) - тогда решение неизвестно и тело не пишется
+        if (Boolean.TRUE.equals(logBody) && !isBodyExcluded(request)) {
+            return response.withBody();
+        }
+        return response.withoutBody();
+    }
+
+    private boolean isBodyExcluded(HttpRequest request) {
+        return "GET".equals(request.getMethod()) && bodyExcludedPaths.contains(request.getPath());
+    }
+
+    public enum Mode {
+        /**
+         * Только стартовая строка и заголовки.
+         */
+        HEADERS,
+        /**
+         * Тела для доли запросов {@code sample-rate}.
+         */
+        SAMPLED,
+        /**
+         * Тела всех запросов, кроме исключенных путей.
+         */
+        FULL
+    }
+}
@@ -0,0 +1,21 @@
+package ru.yandex.practicum.filmorate.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.zalando.logbook.Strategy;
+
+import java.util.Set;
+
+@Configuration
+public class LogbookConfig {
+
+    @Bean
+    public Strategy httpLoggingStrategy(
+            @Value("${filmorate.http-logging.mode:headers}") HttpLoggingStrategy.Mode mode,
+            @Value("${filmorate.http-logging.sample-rate:0.01}") double sampleRate,
+            @Value("${filmorate.http-logging.body-excluded-paths:/films,/users,/films/export,/users/export,/films/popular,/films/trending}")
+            Set<String> bodyExcludedPaths) {
+        return new HttpLoggingStrategy(mode, sampleRate, bodyExcludedPaths);
+    }
+}
@@ -0,0 +1,55 @@
+package ru.yandex.practicum.filmorate.config;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Пишет в лог события JFR {@code jdk.VirtualThreadPinned}: виртуальный поток блокировался,
+ * удерживая монитор ({@code synchronized}) или находясь в native-коде, и занимал поток-носитель.
+ */
+@Slf4j
+public class PinnedThreadMonitor implements AutoCloseable {
+    private static final String EVENT = "jdk.VirtualThreadPinned";
+    private static final int STACK_DEPTH = 8;
+
+    private final Duration threshold;
+    private RecordingStream stream;
+
+    public PinnedThreadMonitor(Duration threshold) {
+        this.threshold = threshold;
+    }
+
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable(EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(EVENT, this::report);
+        stream.startAsync();
+        log.info("Отслеживание закрепления виртуальных потоков дольше {} мс включено", threshold.toMillis());
+    }
+
+    @Override
+    public void close() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void report(RecordedEvent event) {
+        log.warn("Виртуальный поток закреплен за носителем на {} мс:\n{}", event.getDuration().toMillis(),
+                format(event.getStackTrace() != null ? event.getStackTrace().getFrames() : List.of()));
+    }
+
+    private static String format(List<RecordedFrame> frames) {
+        return frames.stream()
+                .limit(STACK_DEPTH)
+                .map(frame -> "\tat " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                        + ":" + frame.getLineNumber())
+                .collect(Collectors.joining("\n"));
+    }
+}
@@ -0,0 +1,39 @@
+package ru.yandex.practicum.filmorate.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import ru.yandex.practicum.filmorate.storage.routing.ReadWriteRoutingDataSource;
+import ru.yandex.practicum.filmorate.storage.trace.TracingDataSource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Оборачивает DataSource в {@link TracingDataSource}, если включено {@code filmorate.sql.trace.enabled}.
+ * При маршрутизации чтения оборачиваются сами пулы, а не {@link ReadWriteRoutingDataSource} и его ленивый прокси,
+ * чтобы не считать запросы дважды.
+ */
+@Configuration
+@ConditionalOnProperty(name = "filmorate.sql.trace.enabled", havingValue = "true")
+public class SqlTraceConfig {
+
+    @Bean
+    public static BeanPostProcessor tracingDataSourcePostProcessor(
+            @Value("${filmorate.sql.trace.slow-threshold:200ms}") Duration slowThreshold) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof TracingDataSource)
+                        && !(bean instanceof ReadWriteRoutingDataSource)
+                        && !(bean instanceof LazyConnectionDataSourceProxy)) {
+                    return new TracingDataSource(dataSource, slowThreshold);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,62 @@
+package ru.yandex.practicum.filmorate.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import ru.yandex.practicum.filmorate.storage.pool.ConnectionLimitingDataSource;
+import ru.yandex.practicum.filmorate.storage.routing.ReadWriteRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Защита для режима {@code spring.threads.virtual.enabled=true}, в котором Tomcat, {@code @Scheduled}
+ * и асинхронные задачи выполняются на виртуальных потоках: каждый пул Hikari закрывается семафором
+ * по своему размеру, а закрепления потоков-носителей пишутся в лог.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    @Bean
+    public static BeanPostProcessor connectionLimitingPostProcessor(
+            @Value("${filmorate.datasource.acquire-timeout:3s}") Duration acquireTimeout) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConnectionLimitingDataSource)
+                        && !(bean instanceof ReadWriteRoutingDataSource)
+                        && !(bean instanceof LazyConnectionDataSourceProxy)) {
+                    return limit(dataSource, beanName, acquireTimeout);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @ConditionalOnProperty(name = "filmorate.virtual-threads.pinning.enabled", havingValue = "true",
+            matchIfMissing = true)
+    public PinnedThreadMonitor pinnedThreadMonitor(
+            @Value("${filmorate.virtual-threads.pinning.threshold:20ms}") Duration threshold) {
+        return new PinnedThreadMonitor(threshold);
+    }
+
+    private static DataSource limit(DataSource dataSource, String beanName, Duration acquireTimeout) {
+        try {
+            if (!dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource;
+            }
+            int poolSize = dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            return new ConnectionLimitingDataSource(dataSource, poolSize, acquireTimeout);
+        } catch (SQLException e) {
+            throw new BeanCreationException(beanName, "Не удалось определить размер пула соединений", e);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.yandex.practicum.filmorate.service.CacheService;
+import ru.yandex.practicum.filmorate.service.ReferenceDataService;
+import ru.yandex.practicum.filmorate.storage.cache.CacheStats;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin")
+public class AdminController {
+    private final ReferenceDataService referenceDataService;
+    private final CacheService cacheService;
+
+    public AdminController(ReferenceDataService referenceDataService, CacheService cacheService) {
+        this.referenceDataService = referenceDataService;
+        this.cacheService = cacheService;
+    }
+
+    @PostMapping("/reference-data/reload")
+    public void reloadReferenceData() {
+        referenceDataService.reload();
+    }
+
+    @GetMapping("/caches")
+    public Map<String, CacheStats> getCacheStats() {
+        return cacheService.getStats();
+    }
+}
@@ -1,25 +1,50 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.yandex.practicum.filmorate.dto.FilmDto;
+import ru.yandex.practicum.filmorate.dto.FilmSummaryDto;
+import ru.yandex.practicum.filmorate.dto.LikeBatchResult;
+import ru.yandex.practicum.filmorate.dto.LikePair;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.service.FilmService;
 
+import java.time.Duration;
 import java.util.Collection;
+import java.util.List;
 
 @Validated
 @RestController
 @RequestMapping("/films")
 public class FilmController {
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_BATCH_SIZE = 1000;
+    /**
+     * Краткое представление без ID лайков: обработчики с этим параметром выбираются вместо полных.
+     */
+    private static final String SUMMARY_VIEW = "view=summary";
+
     private final FilmService filmService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public FilmController(FilmService filmService) {
+    public FilmController(FilmService filmService, ObjectMapper objectMapper) {
         this.filmService = filmService;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
@@ -33,8 +58,31 @@ public class FilmController {
     }
 
     @GetMapping
-    public Collection<Film> getAll() {
-        return filmService.getAll();
+    public ResponseEntity<Collection<Film>> getAll(@RequestParam(required = false) @PositiveOrZero Long afterId,
+                                                   @RequestParam(required = false) @Positive @Max(MAX_PAGE_SIZE) Integer limit) {
+        if (afterId == null && limit == null) {
+            return ResponseEntity.ok(filmService.getAll());
+        }
+        int pageSize = limit != null ? limit : DEFAULT_PAGE_SIZE;
+        Collection<Film> films = filmService.getPage(afterId != null ? afterId : 0, pageSize);
+        return Pagination.page(films, pageSize, Film::getId);
+    }
+
+    @GetMapping(params = SUMMARY_VIEW)
+    public ResponseEntity<Collection<FilmSummaryDto>> getAllSummaries(
+            @RequestParam(required = false) @PositiveOrZero Long afterId,
+            @RequestParam(required = false) @Positive @Max(MAX_PAGE_SIZE) Integer limit) {
+        if (afterId == null && limit == null) {
+            return ResponseEntity.ok(filmService.getAllSummaries());
+        }
+        int pageSize = limit != null ? limit : DEFAULT_PAGE_SIZE;
+        Collection<FilmSummaryDto> films = filmService.getSummaryPage(afterId != null ? afterId : 0, pageSize);
+        return Pagination.page(films, pageSize, FilmSummaryDto::getId);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export() {
+        return NdjsonStreams.stream(objectMapper, filmService::streamAll);
     }
 
     @GetMapping("/{id}")
@@ -42,6 +90,11 @@ public class FilmController {
         return filmService.getFilmById(id);
     }
 
+    @GetMapping(value = "/{id}", params = SUMMARY_VIEW)
+    public FilmSummaryDto getSummaryById(@PathVariable @Positive long id) {
+        return filmService.getSummaryById(id);
+    }
+
     @DeleteMapping("/{id}")
     public void deleteFilm(@PathVariable @Positive long id) {
         filmService.delete(id);
@@ -57,9 +110,41 @@ public class FilmController {
         filmService.deleteLike(id, userId);
     }
 
+    @PostMapping("/likes:batch")
+    public List<LikeBatchResult> addLikes(@RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE) List<@Valid LikePair> likes) {
+        return filmService.addLikes(likes);
+    }
+
+    @PostMapping("/likes:batchDelete")
+    public List<LikeBatchResult> deleteLikes(@RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE) List<@Valid LikePair> likes) {
+        return filmService.deleteLikes(likes);
+    }
+
     @GetMapping("/popular")
     public Collection<FilmDto> getPopularFilms(@RequestParam(defaultValue = "10") @Positive int count) {
         return filmService.getPopularFilms(count);
     }
 
+    @GetMapping(value = "/popular", params = SUMMARY_VIEW)
+    public Collection<FilmSummaryDto> getPopularSummaries(@RequestParam(defaultValue = "10") @Positive int count) {
+        return filmService.getPopularSummaries(count);
+    }
+
+    /**
+     * Фильмы, набирающие лайки за окно: {@code 1h}, {@code 24h}, {@code 7d} или ISO-8601 ({@code PT24H}).
+     */
+    @GetMapping("/trending")
+    public Collection<FilmSummaryDto> getTrendingFilms(@RequestParam(defaultValue = "24h") String window,
+                                                       @RequestParam(defaultValue = "10") @Positive int count) {
+        return filmService.getTrendingSummaries(parseWindow(window), count);
+    }
+
+    private static Duration parseWindow(String window) {
+        try {
+            return DurationStyle.detectAndParse(window);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Некорректное окно трендов: " + window);
+        }
+    }
+
 }
@@ -0,0 +1,35 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.Collection;
+import java.util.function.ToLongFunction;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class Pagination {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    /**
+     * Добавляет к странице курсор следующей страницы (ID последнего элемента) в заголовках Link и X-Next-Cursor.
+     * Если страница заполнена не полностью, следующей страницы нет и заголовки не добавляются.
+     */
+    static <T> ResponseEntity<Collection<T>> page(Collection<T> items, int limit, ToLongFunction<T> idGetter) {
+        if (items.size() < limit) {
+            return ResponseEntity.ok(items);
+        }
+        long nextCursor = items.stream().mapToLong(idGetter).max().orElseThrow();
+        String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("afterId", nextCursor)
+                .replaceQueryParam("limit", limit)
+                .toUriString();
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"")
+                .header(NEXT_CURSOR_HEADER, String.valueOf(nextCursor))
+                .body(items);
+    }
+}
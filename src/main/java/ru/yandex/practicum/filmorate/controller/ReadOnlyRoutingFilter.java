@@ -0,0 +1,39 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import ru.yandex.practicum.filmorate.storage.routing.ReadOnlyRouting;
+
+import java.io.IOException;
+
+/**
+ * Направляет GET- и HEAD-запросы в пул соединений только для чтения.
+ */
+@Component
+@ConditionalOnProperty(name = "filmorate.datasource.read-only-routing.enabled", havingValue = "true")
+public class ReadOnlyRoutingFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!isReadOnly(request.getMethod())) {
+            chain.doFilter(request, response);
+            return;
+        }
+        ReadOnlyRouting.markReadOnly();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadOnlyRouting.clear();
+        }
+    }
+
+    static boolean isReadOnly(String method) {
+        return "GET".equals(method) || "HEAD".equals(method);
+    }
+}
@@ -0,0 +1,59 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import ru.yandex.practicum.filmorate.storage.trace.SqlStats;
+
+import java.io.IOException;
+
+/**
+ * Собирает статистику SQL на время HTTP-запроса и пишет итог в лог.
+ * При {@code filmorate.sql.trace.headers=true} добавляет ее в заголовки ответа.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "filmorate.sql.trace.enabled", havingValue = "true")
+public class SqlBudgetFilter extends OncePerRequestFilter {
+    static final String QUERIES_HEADER = "X-DB-Queries";
+    static final String TIME_HEADER = "X-DB-Time";
+    static final String ROWS_HEADER = "X-DB-Rows";
+
+    private final boolean headersEnabled;
+
+    public SqlBudgetFilter(@Value("${filmorate.sql.trace.headers:false}") boolean headersEnabled) {
+        this.headersEnabled = headersEnabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SqlStats stats = SqlStats.begin();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            SqlStats.end();
+            if (headersEnabled && !response.isCommitted()) {
+                writeHeaders(response, stats);
+            }
+            log.debug("{} {}: запросов к БД {}, строк {}, время в БД {} мс", request.getMethod(),
+                    request.getRequestURI(), stats.getStatements(), stats.getRows(), stats.getElapsed().toMillis());
+        }
+    }
+
+    /**
+     * Заголовки выставляются и перед записью тела ({@link SqlBudgetHeadersAdvice}), потому что после этого
+     * ответ может быть уже отправлен.
+     */
+    static void writeHeaders(HttpServletResponse response, SqlStats stats) {
+        response.setHeader(QUERIES_HEADER, String.valueOf(stats.getStatements()));
+        response.setHeader(TIME_HEADER, String.valueOf(stats.getElapsed().toMillis()));
+        response.setHeader(ROWS_HEADER, String.valueOf(stats.getRows()));
+    }
+}
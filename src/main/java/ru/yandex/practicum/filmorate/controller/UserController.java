@@ -1,10 +1,16 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.yandex.practicum.filmorate.dto.UserFriendDto;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.service.UserService;
@@ -15,11 +21,16 @@ import java.util.Collection;
 @RestController
 @RequestMapping("/users")
 public class UserController {
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final UserService userService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService, ObjectMapper objectMapper) {
         this.userService = userService;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
@@ -38,8 +49,19 @@ public class UserController {
     }
 
     @GetMapping
-    public Collection<User> getAll() {
-        return userService.getAll();
+    public ResponseEntity<Collection<User>> getAll(@RequestParam(required = false) @PositiveOrZero Long afterId,
+                                                   @RequestParam(required = false) @Positive @Max(MAX_PAGE_SIZE) Integer limit) {
+        if (afterId == null && limit == null) {
+            return ResponseEntity.ok(userService.getAll());
+        }
+        int pageSize = limit != null ? limit : DEFAULT_PAGE_SIZE;
+        Collection<User> users = userService.getPage(afterId != null ? afterId : 0, pageSize);
+        return Pagination.page(users, pageSize, User::getId);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export() {
+        return NdjsonStreams.stream(objectMapper, userService::streamAll);
     }
 
     @GetMapping("/{id}")
@@ -0,0 +1,32 @@
+package ru.yandex.practicum.filmorate.dal;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Набор меток колонок, номера которых находятся один раз на {@link ResultSet}.
+ * Дальше строки читаются по номеру без поиска по строке. Отсутствующая колонка дает {@link SQLException}
+ * сразу, а не пропущенные данные.
+ */
+public final class Columns {
+    private final String[] labels;
+
+    private Columns(String[] labels) {
+        this.labels = labels;
+    }
+
+    public static Columns of(String... labels) {
+        return new Columns(labels.clone());
+    }
+
+    /**
+     * @return номера колонок в порядке меток
+     */
+    public int[] resolve(ResultSet rs) throws SQLException {
+        int[] indexes = new int[labels.length];
+        for (int i = 0; i < labels.length; i++) {
+            indexes[i] = rs.findColumn(labels[i]);
+        }
+        return indexes;
+    }
+}
@@ -0,0 +1,51 @@
+package ru.yandex.practicum.filmorate.dal;
+
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Маппер строки, читающий колонки по номерам из {@link Columns#resolve(ResultSet)}.
+ * Экстракторы находят номера до цикла по строкам; {@link #forQuery()} делает то же для {@code jdbc.query}.
+ */
+public abstract class IndexedRowMapper<T> implements RowMapper<T> {
+    private final Columns columns;
+
+    protected IndexedRowMapper(Columns columns) {
+        this.columns = columns;
+    }
+
+    public int[] resolve(ResultSet rs) throws SQLException {
+        return columns.resolve(rs);
+    }
+
+    public abstract T mapRow(ResultSet rs, int[] columns) throws SQLException;
+
+    /**
+     * Ищет номера колонок на каждой строке. Для чтения многих строк используйте {@link #forQuery()}.
+     */
+    @Override
+    public T mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return mapRow(rs, resolve(rs));
+    }
+
+    /**
+     * Маппер на один запрос: номера колонок находятся на первой строке и переиспользуются.
+     */
+    public RowMapper<T> forQuery() {
+        return new RowMapper<>() {
+            private ResultSet resolvedFor;
+            private int[] indexes;
+
+            @Override
+            public T mapRow(ResultSet rs, int rowNum) throws SQLException {
+                if (rs != resolvedFor) {
+                    indexes = resolve(rs);
+                    resolvedFor = rs;
+                }
+                return IndexedRowMapper.this.mapRow(rs, indexes);
+            }
+        };
+    }
+}
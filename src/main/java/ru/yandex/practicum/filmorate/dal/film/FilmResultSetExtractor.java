@@ -4,12 +4,10 @@ import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.model.Film;
-import ru.yandex.practicum.filmorate.model.Genre;
-import ru.yandex.practicum.filmorate.model.Mpa;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @Component
@@ -22,37 +20,22 @@ public class FilmResultSetExtractor implements ResultSetExtractor<Map<Long, Film
 
     @Override
     public Map<Long, Film> extractData(ResultSet rs) throws SQLException, DataAccessException {
-        Map<Long, Film> filmMap = new HashMap<>();
+        Map<Long, Film> filmMap = new LinkedHashMap<>();
+        int[] columns = mapper.resolve(rs);
 
         while (rs.next()) {
-            long filmId = rs.getLong("film_id");
-            Film film = filmMap.computeIfAbsent(filmId, k -> {
-                try {
-                    return mapper.mapRow(rs, 1);
-                } catch (SQLException e) {
-                    throw new RuntimeException("Ошибка маппинга", e);
-                }
-            });
-            film.setMpa(Mpa.builder()
-                    .id(rs.getLong("mpa_id"))
-                    .name(rs.getString("mpa_name"))
-                    .build());
-
-            Long genreId = rs.getObject("genre_id", Long.class);
-            if (genreId != null && genreId != 0) {
-                film.getGenres().add(Genre.builder()
-                        .id(genreId)
-                        .name(rs.getString("genre_name"))
-                        .build());
-            }
-
-            Long userId = rs.getObject("user_id", Long.class);
-            if (userId != null && userId != 0) {
-                film.getLikes().add(userId);
-            }
-
+            Film film = mapper.mapRow(rs, columns);
+            filmMap.put(film.getId(), film);
         }
 
         return filmMap;
     }
+
+    public int[] resolve(ResultSet rs) throws SQLException {
+        return mapper.resolve(rs);
+    }
+
+    public Film mapFilm(ResultSet rs, int[] columns) throws SQLException {
+        return mapper.mapRow(rs, columns);
+    }
 }
@@ -1,30 +1,46 @@
 package ru.yandex.practicum.filmorate.dal.film;
 
-import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.dal.Columns;
+import ru.yandex.practicum.filmorate.dal.IndexedRowMapper;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.utils.LongSet;
 
 import java.io.Serializable;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 
 @Component
-public class FilmRowMapper implements RowMapper<Film>, Serializable {
+public class FilmRowMapper extends IndexedRowMapper<Film> implements Serializable {
+    private static final int ID = 0;
+    private static final int NAME = 1;
+    private static final int DESCRIPTION = 2;
+    private static final int RELEASE_DATE = 3;
+    private static final int DURATION = 4;
+    private static final int MPA_ID = 5;
+    private static final int MPA_NAME = 6;
 
-    @Override
-    public Film mapRow(ResultSet rs, int rowNum) throws SQLException {
+    public FilmRowMapper() {
+        super(Columns.of("film_id", "film_name", "film_description", "film_release_date", "film_duration",
+                "mpa_id", "mpa_name"));
+    }
 
+    @Override
+    public Film mapRow(ResultSet rs, int[] columns) throws SQLException {
         return Film.builder()
-                .id(rs.getLong("film_id"))
-                .name(rs.getString("film_name"))
-                .description(rs.getString("film_description"))
-                .releaseDate(rs.getDate("film_release_date").toLocalDate())
-                .duration(rs.getInt("film_duration"))
-                .mpa(Mpa.builder().build())
-                .genres(new HashSet<>())
-                .likes(new HashSet<>())
+                .id(rs.getLong(columns[ID]))
+                .name(rs.getString(columns[NAME]))
+                .description(rs.getString(columns[DESCRIPTION]))
+                .releaseDate(rs.getDate(columns[RELEASE_DATE]).toLocalDate())
+                .duration(rs.getInt(columns[DURATION]))
+                .mpa(Mpa.builder()
+                        .id(rs.getLong(columns[MPA_ID]))
+                        .name(rs.getString(columns[MPA_NAME]))
+                        .build())
+                .genres(new LinkedHashSet<>())
+                .likes(new LongSet())
                 .build();
     }
 }
@@ -0,0 +1,36 @@
+package ru.yandex.practicum.filmorate.dal.film;
+
+import ru.yandex.practicum.filmorate.dal.Columns;
+import ru.yandex.practicum.filmorate.dal.IndexedRowMapper;
+import ru.yandex.practicum.filmorate.dto.FilmSummaryDto;
+import ru.yandex.practicum.filmorate.model.Mpa;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashSet;
+
+public class FilmSummaryRowMapper extends IndexedRowMapper<FilmSummaryDto> {
+    private static final int ID = 0;
+    private static final int NAME = 1;
+    private static final int LIKES_COUNT = 2;
+    private static final int MPA_ID = 3;
+    private static final int MPA_NAME = 4;
+
+    public FilmSummaryRowMapper() {
+        super(Columns.of("film_id", "film_name", "likes_count", "mpa_id", "mpa_name"));
+    }
+
+    @Override
+    public FilmSummaryDto mapRow(ResultSet rs, int[] columns) throws SQLException {
+        return FilmSummaryDto.builder()
+                .id(rs.getLong(columns[ID]))
+                .name(rs.getString(columns[NAME]))
+                .mpa(Mpa.builder()
+                        .id(rs.getLong(columns[MPA_ID]))
+                        .name(rs.getString(columns[MPA_NAME]))
+                        .build())
+                .genres(new LinkedHashSet<>())
+                .likesCount(rs.getLong(columns[LIKES_COUNT]))
+                .build();
+    }
+}
@@ -12,16 +12,19 @@ import java.util.Map;
 
 @Component
 public class GenreResultSetExtractor implements ResultSetExtractor<Map<Long, Genre>> {
+    private final GenreRowMapper mapper;
+
+    public GenreResultSetExtractor(GenreRowMapper mapper) {
+        this.mapper = mapper;
+    }
+
     @Override
     public Map<Long, Genre> extractData(ResultSet rs) throws SQLException, DataAccessException {
         Map<Long, Genre> genreMap = new HashMap<>();
+        int[] columns = mapper.resolve(rs);
         while (rs.next()) {
-            long id = rs.getLong("id");
-            String name = rs.getString("name");
-            genreMap.computeIfAbsent(id, k -> Genre.builder()
-                    .id(id)
-                    .name(name)
-                    .build());
+            Genre genre = mapper.mapRow(rs, columns);
+            genreMap.putIfAbsent(genre.getId(), genre);
         }
         return genreMap;
     }
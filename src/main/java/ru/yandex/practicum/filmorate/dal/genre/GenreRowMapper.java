@@ -1,19 +1,27 @@
 package ru.yandex.practicum.filmorate.dal.genre;
 
-import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.dal.Columns;
+import ru.yandex.practicum.filmorate.dal.IndexedRowMapper;
 import ru.yandex.practicum.filmorate.model.Genre;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
 
 @Component
-public class GenreRowMapper implements RowMapper<Genre> {
+public class GenreRowMapper extends IndexedRowMapper<Genre> {
+    private static final int ID = 0;
+    private static final int NAME = 1;
+
+    public GenreRowMapper() {
+        super(Columns.of("id", "name"));
+    }
+
     @Override
-    public Genre mapRow(ResultSet rs, int rowNum) throws SQLException {
+    public Genre mapRow(ResultSet rs, int[] columns) throws SQLException {
         return Genre.builder()
-                .id(rs.getLong("id"))
-                .name(rs.getString("name"))
+                .id(rs.getLong(columns[ID]))
+                .name(rs.getString(columns[NAME]))
                 .build();
     }
 }
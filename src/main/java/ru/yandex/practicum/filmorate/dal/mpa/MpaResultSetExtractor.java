@@ -12,16 +12,19 @@ import java.util.Map;
 
 @Component
 public class MpaResultSetExtractor implements ResultSetExtractor<Map<Long, Mpa>> {
+    private final MpaRowMapper mapper;
+
+    public MpaResultSetExtractor(MpaRowMapper mapper) {
+        this.mapper = mapper;
+    }
+
     @Override
     public Map<Long, Mpa> extractData(ResultSet rs) throws SQLException, DataAccessException {
-        Map<Long, Mpa> mpaMap = new HashMap();
+        Map<Long, Mpa> mpaMap = new HashMap<>();
+        int[] columns = mapper.resolve(rs);
         while (rs.next()) {
-            long id = rs.getLong("id");
-            String name = rs.getString("name");
-            mpaMap.computeIfAbsent(id, k -> Mpa.builder()
-                    .id(id)
-                    .name(name)
-                    .build());
+            Mpa mpa = mapper.mapRow(rs, columns);
+            mpaMap.putIfAbsent(mpa.getId(), mpa);
         }
         return mpaMap;
     }
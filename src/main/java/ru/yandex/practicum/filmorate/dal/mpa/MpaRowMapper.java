@@ -1,19 +1,27 @@
 package ru.yandex.practicum.filmorate.dal.mpa;
 
-import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.dal.Columns;
+import ru.yandex.practicum.filmorate.dal.IndexedRowMapper;
 import ru.yandex.practicum.filmorate.model.Mpa;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
 
 @Component
-public class MpaRowMapper implements RowMapper<Mpa> {
+public class MpaRowMapper extends IndexedRowMapper<Mpa> {
+    private static final int ID = 0;
+    private static final int NAME = 1;
+
+    public MpaRowMapper() {
+        super(Columns.of("id", "name"));
+    }
+
     @Override
-    public Mpa mapRow(ResultSet rs, int rowNum) throws SQLException {
+    public Mpa mapRow(ResultSet rs, int[] columns) throws SQLException {
         return Mpa.builder()
-                .id(rs.getLong("id"))
-                .name(rs.getString("name"))
+                .id(rs.getLong(columns[ID]))
+                .name(rs.getString(columns[NAME]))
                 .build();
     }
 }
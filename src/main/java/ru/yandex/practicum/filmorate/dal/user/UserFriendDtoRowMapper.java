@@ -0,0 +1,29 @@
+package ru.yandex.practicum.filmorate.dal.user;
+
+import ru.yandex.practicum.filmorate.dal.Columns;
+import ru.yandex.practicum.filmorate.dal.IndexedRowMapper;
+import ru.yandex.practicum.filmorate.dto.UserFriendDto;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+public class UserFriendDtoRowMapper extends IndexedRowMapper<UserFriendDto> {
+    private static final int ID = 0;
+    private static final int EMAIL = 1;
+    private static final int LOGIN = 2;
+    private static final int NAME = 3;
+
+    public UserFriendDtoRowMapper() {
+        super(Columns.of("id", "email", "login", "name"));
+    }
+
+    @Override
+    public UserFriendDto mapRow(ResultSet rs, int[] columns) throws SQLException {
+        return UserFriendDto.builder()
+                .id(rs.getLong(columns[ID]))
+                .email(rs.getString(columns[EMAIL]))
+                .login(rs.getString(columns[LOGIN]))
+                .name(rs.getString(columns[NAME]))
+                .build();
+    }
+}
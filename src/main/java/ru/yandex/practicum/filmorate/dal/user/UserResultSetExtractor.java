@@ -4,15 +4,21 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.dal.Columns;
 import ru.yandex.practicum.filmorate.model.User;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.function.Consumer;
 
 @Component
 public class UserResultSetExtractor implements ResultSetExtractor<Map<Long, User>> {
+    private static final Columns FRIEND_COLUMNS = Columns.of("friend_id", "status");
+    private static final int FRIEND_ID = 0;
+    private static final int STATUS = 1;
+
     private final UserRowMapper mapper;
 
     @Autowired
@@ -22,27 +28,52 @@ public class UserResultSetExtractor implements ResultSetExtractor<Map<Long, User
 
     @Override
     public Map<Long, User> extractData(ResultSet rs) throws SQLException, DataAccessException {
-        Map<Long, User> users = new HashMap<>();
+        Map<Long, User> users = new LinkedHashMap<>();
+        int[] columns = mapper.resolve(rs);
+        int[] friendColumns = FRIEND_COLUMNS.resolve(rs);
 
         while (rs.next()) {
-            long userId = rs.getLong("user_id");
+            long userId = rs.getLong(columns[UserRowMapper.ID]);
+            User user = users.get(userId);
+            if (user == null) {
+                user = mapper.mapRow(rs, columns);
+                users.put(userId, user);
+            }
+            addFriend(rs, friendColumns, user);
+        }
 
-            User user = users.computeIfAbsent(userId, k -> {
-                try {
-                    return mapper.mapRow(rs, 1);
-                } catch (SQLException e) {
-                    throw new RuntimeException(e);
-                }
-            });
+        return users;
+    }
 
-            Long friendId = rs.getObject("friend_id", Long.class);
-            Boolean status = rs.getObject("status", Boolean.class);
+    /**
+     * Читает строки, упорядоченные по user_id, и передает пользователя дальше, как только встречается
+     * строка следующего пользователя. В памяти держится только текущий пользователь.
+     */
+    public void extractOrdered(ResultSet rs, Consumer<User> consumer) throws SQLException {
+        User current = null;
+        int[] columns = mapper.resolve(rs);
+        int[] friendColumns = FRIEND_COLUMNS.resolve(rs);
 
-            if (friendId != null) {
-                user.getFriends().put(friendId, status != null ? status : false);
+        while (rs.next()) {
+            long userId = rs.getLong(columns[UserRowMapper.ID]);
+            if (current == null || current.getId() != userId) {
+                if (current != null) {
+                    consumer.accept(current);
+                }
+                current = mapper.mapRow(rs, columns);
             }
+            addFriend(rs, friendColumns, current);
         }
 
-        return users;
+        if (current != null) {
+            consumer.accept(current);
+        }
+    }
+
+    private static void addFriend(ResultSet rs, int[] friendColumns, User user) throws SQLException {
+        long friendId = rs.getLong(friendColumns[FRIEND_ID]);
+        if (!rs.wasNull()) {
+            user.getFriends().put(friendId, rs.getBoolean(friendColumns[STATUS]));
+        }
     }
 }
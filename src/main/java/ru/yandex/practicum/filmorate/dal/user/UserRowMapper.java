@@ -1,25 +1,35 @@
 package ru.yandex.practicum.filmorate.dal.user;
 
-import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.dal.Columns;
+import ru.yandex.practicum.filmorate.dal.IndexedRowMapper;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.utils.LongBooleanMap;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.HashMap;
 
 @Component
-public class UserRowMapper implements RowMapper<User> {
+public class UserRowMapper extends IndexedRowMapper<User> {
+    static final int ID = 0;
+    private static final int EMAIL = 1;
+    private static final int LOGIN = 2;
+    private static final int NAME = 3;
+    private static final int BIRTHDAY = 4;
+
+    public UserRowMapper() {
+        super(Columns.of("user_id", "user_email", "user_login", "user_name", "user_birthday"));
+    }
 
     @Override
-    public User mapRow(ResultSet rs, int rowNum) throws SQLException {
+    public User mapRow(ResultSet rs, int[] columns) throws SQLException {
         return User.builder()
-                .id(rs.getLong("user_id"))
-                .email(rs.getString("user_email"))
-                .login(rs.getString("user_login"))
-                .name(rs.getString("user_name"))
-                .birthday(rs.getDate("user_birthday").toLocalDate())
-                .friends(new HashMap<>())
+                .id(rs.getLong(columns[ID]))
+                .email(rs.getString(columns[EMAIL]))
+                .login(rs.getString(columns[LOGIN]))
+                .name(rs.getString(columns[NAME]))
+                .birthday(rs.getDate(columns[BIRTHDAY]).toLocalDate())
+                .friends(new LongBooleanMap())
                 .build();
     }
 }
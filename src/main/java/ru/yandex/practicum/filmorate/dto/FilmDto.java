@@ -4,6 +4,7 @@ import lombok.Builder;
 import lombok.Data;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.utils.LongSet;
 
 import java.time.LocalDate;
 import java.util.Set;
@@ -18,6 +19,6 @@ public class FilmDto {
     private Integer duration;
     private Mpa mpa;
     private Set<Genre> genres;
-    private Set<Long> likes;
+    private LongSet likes;
     private long likesCount;
 }
@@ -0,0 +1,21 @@
+package ru.yandex.practicum.filmorate.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+
+import java.util.Set;
+
+/**
+ * Краткое представление фильма ({@code ?view=summary}): без описания и ID лайкнувших пользователей.
+ */
+@Data
+@Builder
+public class FilmSummaryDto {
+    private long id;
+    private String name;
+    private Mpa mpa;
+    private Set<Genre> genres;
+    private long likesCount;
+}
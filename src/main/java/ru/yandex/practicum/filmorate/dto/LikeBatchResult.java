@@ -0,0 +1,20 @@
+package ru.yandex.practicum.filmorate.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class LikeBatchResult {
+    private long filmId;
+    private long userId;
+    private Status status;
+
+    public enum Status {
+        ADDED,
+        REMOVED,
+        UNCHANGED,
+        FILM_NOT_FOUND,
+        USER_NOT_FOUND
+    }
+}
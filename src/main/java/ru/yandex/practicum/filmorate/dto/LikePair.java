@@ -0,0 +1,19 @@
+package ru.yandex.practicum.filmorate.dto;
+
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LikePair {
+    @Positive(message = "ID фильма должен быть положительным")
+    private long filmId;
+
+    @Positive(message = "ID пользователя должен быть положительным")
+    private long userId;
+}
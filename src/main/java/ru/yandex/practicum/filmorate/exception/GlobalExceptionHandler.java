@@ -4,6 +4,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -59,7 +60,7 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
     }
 
-    @ExceptionHandler(AlreadyExistsException.class)
+    @ExceptionHandler({AlreadyExistsException.class, DuplicateKeyException.class})
     public ResponseEntity<ErrorResponse> handleAlreadyExists(RuntimeException ex, HttpServletRequest request) {
         log.error("Already exists error: {}", ex.getMessage());
         Map<String, String> message = Map.of("error", ex.getMessage());
@@ -81,6 +82,12 @@ public class GlobalExceptionHandler {
         return getErrorResponseResponseEntity(ex, request);
     }
 
+    @ExceptionHandler(ValidationException.class)
+    public ResponseEntity<ErrorResponse> handleValidationException(RuntimeException ex, HttpServletRequest request) {
+        log.error("Validation error: {}", ex.getMessage());
+        return getErrorResponseResponseEntity(ex, request);
+    }
+
     @ExceptionHandler(InternalServerException.class)
     public ResponseEntity<ErrorResponse> handleInternalServer(RuntimeException ex, HttpServletRequest request) {
         log.error("Internal server error: {}", ex.getMessage());
@@ -3,6 +3,7 @@ package ru.yandex.practicum.filmorate.mapper;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import ru.yandex.practicum.filmorate.dto.FilmDto;
+import ru.yandex.practicum.filmorate.dto.FilmSummaryDto;
 import ru.yandex.practicum.filmorate.model.Film;
 
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
@@ -19,4 +20,13 @@ public final class FilmMapper {
                 .build();
     }
 
+    public static FilmSummaryDto mapToFilmSummaryDto(Film film) {
+        return FilmSummaryDto.builder()
+                .id(film.getId())
+                .name(film.getName())
+                .mpa(film.getMpa())
+                .genres(film.getGenres())
+                .likesCount(film.getLikes().size())
+                .build();
+    }
 }
@@ -8,6 +8,7 @@ import jakarta.validation.constraints.Positive;
 import lombok.Builder;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import ru.yandex.practicum.filmorate.utils.LongSet;
 import ru.yandex.practicum.filmorate.utils.validator.film.ValidFilm;
 
 import java.time.LocalDate;
@@ -34,7 +35,7 @@ public class Film {
     private Integer duration;
 
     @Builder.Default
-    private Set<Long> likes = new HashSet<>();
+    private LongSet likes = new LongSet();
 
     @NotNull(message = "Жанры не могут быть пустыми")
     private Set<Genre> genres;
@@ -49,7 +50,7 @@ public class Film {
             @JsonProperty("description") String description,
             @JsonProperty("releaseDate") LocalDate releaseDate,
             @JsonProperty("duration") Integer duration,
-            @JsonProperty("likes") Set<Long> likes,
+            @JsonProperty("likes") LongSet likes,
             @JsonProperty("genres") Set<Genre> genres,
             @JsonProperty("mpa") Mpa mpa) {
         this.id = id;
@@ -58,7 +59,7 @@ public class Film {
         this.releaseDate = releaseDate;
         this.duration = duration;
         this.mpa = mpa;
-        this.likes = likes != null ? likes : new HashSet<>();
+        this.likes = likes != null ? likes : new LongSet();
         this.genres = genres != null ? genres : new HashSet<>();
     }
 
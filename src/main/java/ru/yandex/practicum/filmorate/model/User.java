@@ -7,11 +7,10 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.Builder;
 import lombok.Data;
+import ru.yandex.practicum.filmorate.utils.LongBooleanMap;
 import ru.yandex.practicum.filmorate.utils.validator.user.ValidUser;
 
 import java.time.LocalDate;
-import java.util.HashMap;
-import java.util.Map;
 
 @Data
 @Builder
@@ -32,7 +31,7 @@ public class User {
     private LocalDate birthday;
 
     @Builder.Default
-    private Map<Long, Boolean> friends = new HashMap<>();
+    private LongBooleanMap friends = new LongBooleanMap();
 
     @JsonCreator
     public User(
@@ -41,13 +40,13 @@ public class User {
             @JsonProperty("login") String login,
             @JsonProperty("name") String name,
             @JsonProperty("birthday") LocalDate birthday,
-            @JsonProperty("friends") Map<Long, Boolean> friends) {
+            @JsonProperty("friends") LongBooleanMap friends) {
         this.id = id;
         this.email = email;
         this.login = login;
         this.name = name;
         this.birthday = birthday;
-        this.friends = friends != null ? friends : new HashMap<>();
+        this.friends = friends != null ? friends : new LongBooleanMap();
     }
 
 }
@@ -0,0 +1,27 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.storage.cache.CacheStats;
+import ru.yandex.practicum.filmorate.storage.film.CachedFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.CachedUserStorage;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Service
+public class CacheService {
+    private final CachedFilmStorage filmStorage;
+    private final CachedUserStorage userStorage;
+
+    public CacheService(CachedFilmStorage filmStorage, CachedUserStorage userStorage) {
+        this.filmStorage = filmStorage;
+        this.userStorage = userStorage;
+    }
+
+    public Map<String, CacheStats> getStats() {
+        Map<String, CacheStats> stats = new LinkedHashMap<>();
+        stats.put("films", filmStorage.getCacheStats());
+        stats.put("users", userStorage.getCacheStats());
+        return stats;
+    }
+}
@@ -1,33 +1,49 @@
 package ru.yandex.practicum.filmorate.service;
 
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.dto.FilmDto;
+import ru.yandex.practicum.filmorate.dto.FilmSummaryDto;
+import ru.yandex.practicum.filmorate.dto.LikeBatchResult;
+import ru.yandex.practicum.filmorate.dto.LikePair;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.mapper.FilmMapper;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.LikeWriteBehindBuffer;
 import lombok.extern.slf4j.Slf4j;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
+@Timed(value = "filmorate.service", histogram = true)
 public class FilmService {
     private final FilmStorage filmStorage;
     private final UserService userService;
     private final GenreService genreService;
     private final MpaService mpaService;
+    private final LikeWriteBehindBuffer likeBuffer;
 
     @Autowired
-    public FilmService(FilmStorage filmStorage, UserService userService, GenreService genreService, MpaService mpaService) {
+    public FilmService(FilmStorage filmStorage, UserService userService, GenreService genreService, MpaService mpaService,
+                       LikeWriteBehindBuffer likeBuffer) {
         this.filmStorage = filmStorage;
         this.userService = userService;
         this.genreService = genreService;
         this.mpaService = mpaService;
+        this.likeBuffer = likeBuffer;
     }
 
     public Film create(Film film) {
@@ -39,7 +55,7 @@ public class FilmService {
     }
 
     public FilmDto update(Film film) {
-        this.getFilmById(film.getId());
+        this.checkExists(film.getId());
         Film updatedFilm = filmStorage.update(film);
         log.info("Фильм с id {} обновлен", film.getId());
         return FilmMapper.mapToFilmDto(updatedFilm);
@@ -49,9 +65,38 @@ public class FilmService {
         return filmStorage.getAll();
     }
 
+    public Collection<Film> getPage(long afterId, int limit) {
+        return filmStorage.getPage(afterId, limit);
+    }
+
+    public void streamAll(Consumer<Film> consumer) {
+        filmStorage.streamAll(consumer);
+    }
+
     public Film getFilmById(long id) {
-        return filmStorage.getFilmById(id)
+        Film film = filmStorage.getFilmById(id)
                 .orElseThrow(() -> new NotFoundException("Фильм с ID: " + id + " не найден."));
+        return likeBuffer.isEnabled() ? likeBuffer.overlay(film) : film;
+    }
+
+    public FilmSummaryDto getSummaryById(long id) {
+        return filmStorage.getSummaryById(id)
+                .map(this::withPendingLikes)
+                .orElseThrow(() -> new NotFoundException("Фильм с ID: " + id + " не найден."));
+    }
+
+    public Collection<FilmSummaryDto> getAllSummaries() {
+        return withPendingLikes(filmStorage.getAllSummaries());
+    }
+
+    public Collection<FilmSummaryDto> getSummaryPage(long afterId, int limit) {
+        return withPendingLikes(filmStorage.getSummaryPage(afterId, limit));
+    }
+
+    public void checkExists(long id) {
+        if (!filmStorage.exists(id)) {
+            throw new NotFoundException("Фильм с ID: " + id + " не найден.");
+        }
     }
 
     public void delete(long id) {
@@ -59,20 +104,115 @@ public class FilmService {
     }
 
     public void addLike(long filmId, long userId) {
-        getFilmById(filmId);
-        userService.getUserById(userId);
-        filmStorage.addLike(filmId, userId);
-        log.info("Пользователь с id {} поставил лайк фильму с id {}", userId, filmId);
+        checkExists(filmId);
+        userService.checkExists(userId);
+        if (likeBuffer.isEnabled()) {
+            likeBuffer.addLike(filmId, userId);
+            log.debug("Лайк пользователя с id {} фильму с id {} поставлен в очередь на запись", userId, filmId);
+        } else if (filmStorage.addLike(filmId, userId)) {
+            log.info("Пользователь с id {} поставил лайк фильму с id {}", userId, filmId);
+        } else {
+            log.debug("Лайк пользователя с id {} фильму с id {} уже существует", userId, filmId);
+        }
     }
 
     public void deleteLike(long filmId, long userId) {
-        getFilmById(filmId);
-        userService.getUserById(userId);
-        filmStorage.removeLike(filmId, userId);
-        log.info("Пользователь с id {} удалил лайк с фильма с id {}", userId, filmId);
+        checkExists(filmId);
+        userService.checkExists(userId);
+        if (likeBuffer.isEnabled()) {
+            likeBuffer.removeLike(filmId, userId);
+            log.debug("Снятие лайка пользователя с id {} с фильма с id {} поставлено в очередь на запись", userId, filmId);
+        } else if (filmStorage.removeLike(filmId, userId)) {
+            log.info("Пользователь с id {} удалил лайк с фильма с id {}", userId, filmId);
+        } else {
+            log.debug("Лайка пользователя с id {} фильму с id {} нет", userId, filmId);
+        }
+    }
+
+    public List<LikeBatchResult> addLikes(List<LikePair> likes) {
+        List<LikeBatchResult> results = applyLikes(likes, filmStorage::addLikes, LikeBatchResult.Status.ADDED);
+        log.info("Пакетно добавлено лайков: {} из {}", countChanged(results), likes.size());
+        return results;
+    }
+
+    public List<LikeBatchResult> deleteLikes(List<LikePair> likes) {
+        List<LikeBatchResult> results = applyLikes(likes, filmStorage::removeLikes, LikeBatchResult.Status.REMOVED);
+        log.info("Пакетно удалено лайков: {} из {}", countChanged(results), likes.size());
+        return results;
+    }
+
+    /**
+     * Проверяет существование фильмов и пользователей одним запросом на каждую таблицу,
+     * применяет операцию к валидным парам и возвращает результат по каждому элементу в исходном порядке.
+     */
+    private List<LikeBatchResult> applyLikes(List<LikePair> likes,
+                                             Function<Collection<LikePair>, List<LikePair>> operation,
+                                             LikeBatchResult.Status changedStatus) {
+        Set<Long> films = filmStorage.getExistingIds(likes.stream().map(LikePair::getFilmId).toList());
+        Set<Long> users = userService.getExistingIds(likes.stream().map(LikePair::getUserId).toList());
+
+        Set<LikePair> valid = likes.stream()
+                .filter(like -> films.contains(like.getFilmId()) && users.contains(like.getUserId()))
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Set<LikePair> changed = valid.isEmpty() ? Set.of() : new HashSet<>(operation.apply(valid));
+
+        List<LikeBatchResult> results = new ArrayList<>(likes.size());
+        for (LikePair like : likes) {
+            LikeBatchResult.Status status;
+            if (!films.contains(like.getFilmId())) {
+                status = LikeBatchResult.Status.FILM_NOT_FOUND;
+            } else if (!users.contains(like.getUserId())) {
+                status = LikeBatchResult.Status.USER_NOT_FOUND;
+            } else if (changed.remove(like)) {
+                status = changedStatus;
+            } else {
+                status = LikeBatchResult.Status.UNCHANGED;
+            }
+            results.add(LikeBatchResult.builder()
+                    .filmId(like.getFilmId())
+                    .userId(like.getUserId())
+                    .status(status)
+                    .build());
+        }
+        return results;
+    }
+
+    private static long countChanged(List<LikeBatchResult> results) {
+        return results.stream()
+                .filter(result -> result.getStatus() == LikeBatchResult.Status.ADDED
+                        || result.getStatus() == LikeBatchResult.Status.REMOVED)
+                .count();
     }
 
     public Collection<FilmDto> getPopularFilms(int count) {
         return filmStorage.getPopularFilms(count);
     }
+
+    public Collection<FilmSummaryDto> getPopularSummaries(int count) {
+        return withPendingLikes(filmStorage.getPopularSummaries(count));
+    }
+
+    public Collection<FilmSummaryDto> getTrendingSummaries(Duration window, int count) {
+        return withPendingLikes(filmStorage.getTrendingSummaries(window, count));
+    }
+
+    private Collection<FilmSummaryDto> withPendingLikes(Collection<FilmSummaryDto> summaries) {
+        if (!likeBuffer.isEnabled()) {
+            return summaries;
+        }
+        return summaries.stream().map(this::withPendingLikes).toList();
+    }
+
+    /**
+     * Если у фильма есть незаписанные лайки, краткое представление строится по полному фильму с их учетом.
+     * Порядок выдачи популярных и трендовых фильмов при этом не меняется до записи буфера.
+     */
+    private FilmSummaryDto withPendingLikes(FilmSummaryDto summary) {
+        if (!likeBuffer.isEnabled() || !likeBuffer.hasPending(summary.getId())) {
+            return summary;
+        }
+        return filmStorage.getFilmById(summary.getId())
+                .map(film -> FilmMapper.mapToFilmSummaryDto(likeBuffer.overlay(film)))
+                .orElse(summary);
+    }
 }
@@ -1,5 +1,6 @@
 package ru.yandex.practicum.filmorate.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
@@ -11,6 +12,7 @@ import java.util.Set;
 
 @Slf4j
 @Service
+@Timed(value = "filmorate.service", histogram = true)
 public class GenreService {
     private final GenreStorage genreStorage;
 
@@ -0,0 +1,24 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.storage.genre.CachedGenreStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.CachedMpaStorage;
+
+@Slf4j
+@Service
+public class ReferenceDataService {
+    private final CachedGenreStorage genreStorage;
+    private final CachedMpaStorage mpaStorage;
+
+    public ReferenceDataService(CachedGenreStorage genreStorage, CachedMpaStorage mpaStorage) {
+        this.genreStorage = genreStorage;
+        this.mpaStorage = mpaStorage;
+    }
+
+    public void reload() {
+        genreStorage.reload();
+        mpaStorage.reload();
+        log.info("Справочники жанров и MPA перечитаны из БД");
+    }
+}
@@ -1,5 +1,6 @@
 package ru.yandex.practicum.filmorate.service;
 
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.dto.UserFriendDto;
@@ -9,9 +10,12 @@ import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.Collection;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
+@Timed(value = "filmorate.service", histogram = true)
 public class UserService {
     private final UserStorage userStorage;
 
@@ -25,12 +29,12 @@ public class UserService {
     }
 
     public User update(User user) {
-        this.getUserById(user.getId());
+        this.checkExists(user.getId());
         return userStorage.update(user);
     }
 
     public void delete(long id) {
-        this.getUserById(id);
+        this.checkExists(id);
         userStorage.delete(id);
     }
 
@@ -38,23 +42,42 @@ public class UserService {
         return userStorage.getAll();
     }
 
+    public Collection<User> getPage(long afterId, int limit) {
+        return userStorage.getPage(afterId, limit);
+    }
+
+    public void streamAll(Consumer<User> consumer) {
+        userStorage.streamAll(consumer);
+    }
+
     public User getUserById(long id) {
         return userStorage.getUserById(id)
                 .orElseThrow(() -> new NotFoundException("Пользователь с ID " + id + " не найден"));
     }
 
+    public Set<Long> getExistingIds(Collection<Long> ids) {
+        return userStorage.getExistingIds(ids);
+    }
+
+    public void checkExists(long id) {
+        if (!userStorage.exists(id)) {
+            throw new NotFoundException("Пользователь с ID " + id + " не найден");
+        }
+    }
+
     public User login(String email) {
-        return userStorage.getAll().stream()
-                .filter(user -> user.getEmail().equals(email))
-                .findFirst()
+        return userStorage.findByEmail(email)
                 .orElseThrow(() -> new NotFoundException("Пользователь с email " + email + " не найден"));
     }
 
     public void addFriend(long userId, long friendId) {
-        this.getUserById(userId);
-        this.getUserById(friendId);
-        userStorage.addFriend(userId, friendId);
-        log.info("Пользователь с ID {} отправил запрос на дружбу пользователяю с ID {} ", userId, friendId);
+        this.checkExists(userId);
+        this.checkExists(friendId);
+        if (userStorage.addFriend(userId, friendId)) {
+            log.info("Пользователь с ID {} отправил запрос на дружбу пользователяю с ID {} ", userId, friendId);
+        } else {
+            log.debug("Запрос на дружбу от пользователя с ID {} к пользователю с ID {} уже существует", userId, friendId);
+        }
     }
 
     public void confirmFriend(long userId, long friendId) {
@@ -63,27 +86,21 @@ public class UserService {
     }
 
     public void deleteFriend(long userId, long friendId) {
-        this.getUserById(userId);
-        this.getUserById(friendId);
-
-        if (this.checkRelationship(userId, friendId)) {
-            userStorage.deleteFriend(userId, friendId);
+        this.checkExists(userId);
+        this.checkExists(friendId);
+        if (userStorage.deleteFriend(userId, friendId)) {
             log.info("Пользователь с ID {} удалил дружбу с пользователем с ID {} ", userId, friendId);
         }
     }
 
-    public boolean checkRelationship(long userId, long friendId) {
-        return userStorage.checkRelationship(userId, friendId);
-    }
-
     public Collection<UserFriendDto> getFriends(long userId) {
-        this.getUserById(userId);
+        this.checkExists(userId);
         return userStorage.getFriends(userId);
     }
 
     public Collection<UserFriendDto> getCommonFriends(long userId, long otherId) {
-        userStorage.getUserById(userId);
-        userStorage.getUserById(otherId);
+        this.checkExists(userId);
+        this.checkExists(otherId);
         return userStorage.getCommonFriends(userId, otherId);
     }
 }
@@ -1,54 +1,110 @@
 package ru.yandex.practicum.filmorate.storage;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ru.yandex.practicum.filmorate.exception.DataIntegrityException;
 import ru.yandex.practicum.filmorate.exception.InternalServerException;
 
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.Statement;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 @RequiredArgsConstructor
 public abstract class BaseRepository<T> {
+    protected static final int IN_BATCH_SIZE = 500;
+
     protected final JdbcTemplate jdbc;
     protected final ResultSetExtractor<Map<Long, T>> extractor;
 
+    private final Map<String, QueryMetrics.Meters> queryMeters = new ConcurrentHashMap<>();
+    private QueryMetrics queryMetrics;
+    private Map<String, String> queryNames = Map.of();
+
+    @Autowired(required = false)
+    public void setQueryMetrics(QueryMetrics queryMetrics) {
+        this.queryMetrics = queryMetrics;
+        this.queryNames = QueryMetrics.queryNames(getClass());
+    }
+
     protected Optional<T> findOne(String query, Object... params) {
-        Map<Long, T> result = jdbc.query(query, extractor, params);
-        return result.values().stream().findFirst();
+        return queryEntities(query, query, params).values().stream().findFirst();
     }
 
     protected List<T> findMany(String query, Object... params) {
-        Map<Long, T> result = jdbc.query(query, extractor, params);
-        return new ArrayList<>(result.values());
+        return new ArrayList<>(queryEntities(query, query, params).values());
+    }
+
+    /**
+     * Читает сущности экстрактором. В метрику строк пишется число прочитанных строк результата,
+     * в метрику сущностей - число собранных сущностей: их отношение показывает разворот соединений.
+     */
+    protected Map<Long, T> queryEntities(String template, String query, Object... params) {
+        if (queryMetrics == null) {
+            return jdbc.query(query, extractor, params);
+        }
+        RowCountingExtractor<Map<Long, T>> counting = new RowCountingExtractor<>(extractor);
+        Map<Long, T> result = measure(template, () -> jdbc.query(query, counting, params));
+        QueryMetrics.Meters meters = meters(template);
+        meters.rows().record(counting.getRows());
+        meters.entities().record(result.size());
+        return result;
+    }
+
+    protected boolean exists(String query, Object... params) {
+        return measure(query, () ->
+                Boolean.TRUE.equals(jdbc.query(query, (ResultSetExtractor<Boolean>) ResultSet::next, params)));
+    }
+
+    protected Set<Long> findExistingIds(String query, Collection<Long> ids) {
+        Set<Long> found = new HashSet<>();
+        for (List<Long> batch : partition(ids.stream().distinct().toList())) {
+            List<Long> existing = measure(query, () -> jdbc.queryForList(
+                    query.formatted(placeholders(batch.size())), Long.class, batch.toArray()));
+            recordRows(query, existing.size());
+            found.addAll(existing);
+        }
+        return found;
     }
 
     protected void update(String query, Object... params) {
-        int updated = jdbc.update(query, params);
+        int updated = execute(query, params);
         if (updated == 0) {
             throw new InternalServerException("Не удалось обновить данные: " + query);
         }
     }
 
     protected boolean delete(String query, Object... params) {
-        int deleted = jdbc.update(query, params);
-        return deleted > 0;
+        return execute(query, params) > 0;
+    }
+
+    /**
+     * Выполняет изменяющий запрос и возвращает число затронутых строк.
+     */
+    protected int execute(String query, Object... params) {
+        int updated = measure(query, () -> jdbc.update(query, params));
+        recordRows(query, updated);
+        return updated;
     }
 
     protected long insert(String query, Object... params) {
         GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
         try {
-            jdbc.update(connection -> {
+            measure(query, () -> jdbc.update(connection -> {
                 PreparedStatement ps = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS);
                 for (int i = 0; i < params.length; i++) {
                     ps.setObject(i + 1, params[i]);
                 }
                 return ps;
-            }, keyHolder);
+            }, keyHolder));
         } catch (DataIntegrityViolationException e) {
             throw new DataIntegrityException("Ошибка целостности данных: " + e.getMessage());
         }
@@ -60,4 +116,59 @@ public abstract class BaseRepository<T> {
 
         return ((Number) keys.getFirst().values().iterator().next()).longValue();
     }
+
+    /**
+     * Замеряет время запроса. Для запросов с подстановкой ({@code %s}) передается шаблон, а не итоговый текст,
+     * чтобы метрики группировались по имени константы.
+     */
+    protected <R> R measure(String query, Supplier<R> call) {
+        if (queryMetrics == null) {
+            return call.get();
+        }
+        return meters(query).record(call);
+    }
+
+    protected void recordRows(String query, long rows) {
+        if (queryMetrics != null) {
+            meters(query).rows().record(rows);
+        }
+    }
+
+    private QueryMetrics.Meters meters(String query) {
+        return queryMeters.computeIfAbsent(query, q -> queryMetrics.meters(getClass().getSimpleName(),
+                queryNames.getOrDefault(q, QueryMetrics.UNNAMED_QUERY)));
+    }
+
+    /**
+     * Выполняет действие после фиксации текущей транзакции, а вне транзакции - сразу.
+     * Так in-memory индексы не опережают БД, если транзакция откатится.
+     */
+    protected static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    protected static <E> List<List<E>> partition(List<E> values) {
+        List<List<E>> batches = new ArrayList<>();
+        for (int from = 0; from < values.size(); from += IN_BATCH_SIZE) {
+            batches.add(values.subList(from, Math.min(from + IN_BATCH_SIZE, values.size())));
+        }
+        return batches;
+    }
+
+    protected static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    protected static String pairPlaceholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "(?, ?)"));
+    }
 }
@@ -0,0 +1,95 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Метрики SQL-запросов хранилищ: время выполнения ({@value #QUERY_TIMER}), число строк ({@value #ROWS_SUMMARY})
+ * и число собранных из них сущностей ({@value #ENTITIES_SUMMARY}) с тегами repository и query.
+ * Имя запроса - имя константы в классе хранилища.
+ */
+@Component
+public class QueryMetrics {
+    public static final String QUERY_TIMER = "filmorate.db.query";
+    public static final String ROWS_SUMMARY = "filmorate.db.rows";
+    public static final String ENTITIES_SUMMARY = "filmorate.db.entities";
+    static final String UNNAMED_QUERY = "unnamed";
+
+    private final MeterRegistry registry;
+
+    public QueryMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public Meters meters(String repository, String query) {
+        return new Meters(
+                timer(repository, query, "success"),
+                timer(repository, query, "error"),
+                summary(ROWS_SUMMARY, "Строк прочитано или изменено одним запросом", repository, query),
+                summary(ENTITIES_SUMMARY, "Сущностей собрано из строк одного запроса", repository, query));
+    }
+
+    private DistributionSummary summary(String name, String description, String repository, String query) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .tag("repository", repository)
+                .tag("query", query)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private Timer timer(String repository, String query, String outcome) {
+        return Timer.builder(QUERY_TIMER)
+                .description("Время выполнения SQL-запроса")
+                .tag("repository", repository)
+                .tag("query", query)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /**
+     * Соответствие текста запроса имени константы для всех {@code static final String} полей класса и его предков.
+     */
+    static Map<String, String> queryNames(Class<?> type) {
+        Map<String, String> names = new HashMap<>();
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (field.getType() != String.class || !Modifier.isStatic(modifiers) || !Modifier.isFinal(modifiers)) {
+                    continue;
+                }
+                try {
+                    field.setAccessible(true);
+                    names.putIfAbsent((String) field.get(null), field.getName());
+                } catch (ReflectiveOperationException | RuntimeException e) {
+                    // поле недоступно - запрос будет помечен как безымянный
+                }
+            }
+        }
+        return names;
+    }
+
+    public record Meters(Timer success, Timer error, DistributionSummary rows, DistributionSummary entities) {
+        public <R> R record(Supplier<R> call) {
+            long started = System.nanoTime();
+            try {
+                R result = call.get();
+                success.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                return result;
+            } catch (RuntimeException e) {
+                error.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                throw e;
+            }
+        }
+    }
+}
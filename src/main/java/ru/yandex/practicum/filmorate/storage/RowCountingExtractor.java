@@ -0,0 +1,43 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.springframework.jdbc.core.ResultSetExtractor;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Обертка над {@link ResultSetExtractor}, которая считает строки результата, прочитанные через {@code next()}.
+ * Экстрактор сущностей схлопывает строки соединения в одну сущность, поэтому их число по результату не восстановить.
+ */
+final class RowCountingExtractor<R> implements ResultSetExtractor<R> {
+    private final ResultSetExtractor<R> target;
+    private long rows;
+
+    RowCountingExtractor(ResultSetExtractor<R> target) {
+        this.target = target;
+    }
+
+    long getRows() {
+        return rows;
+    }
+
+    @Override
+    public R extractData(ResultSet rs) throws SQLException {
+        ResultSet counting = (ResultSet) Proxy.newProxyInstance(RowCountingExtractor.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class}, (proxy, method, args) -> {
+                    Object result;
+                    try {
+                        result = method.invoke(rs, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    if ("next".equals(method.getName()) && Boolean.TRUE.equals(result)) {
+                        rows++;
+                    }
+                    return result;
+                });
+        return target.extractData(counting);
+    }
+}
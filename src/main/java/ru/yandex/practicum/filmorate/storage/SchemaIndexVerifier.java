@@ -0,0 +1,86 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Проверяет при старте, что в схеме есть индексы, на которые рассчитаны горячие запросы.
+ * Индекс считается подходящим, если нужная колонка в нем первая.
+ */
+@Slf4j
+@Component
+public class SchemaIndexVerifier {
+    private static final List<IndexedColumn> REQUIRED = List.of(
+            new IndexedColumn("friends", "user_id"),
+            new IndexedColumn("friends", "friend_id"),
+            new IndexedColumn("film_likes", "film_id"),
+            new IndexedColumn("film_likes", "user_id"),
+            new IndexedColumn("film_genres", "film_id"),
+            new IndexedColumn("film_genres", "genre_id"),
+            new IndexedColumn("films", "likes_count"),
+            new IndexedColumn("users", "email")
+    );
+
+    private final JdbcTemplate jdbc;
+
+    public SchemaIndexVerifier(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void verify() {
+        List<String> missing = findMissingIndexes();
+        if (missing.isEmpty()) {
+            log.info("Проверка индексов схемы пройдена");
+        } else {
+            log.warn("В схеме отсутствуют индексы: {}", missing);
+        }
+    }
+
+    public List<String> findMissingIndexes() {
+        return jdbc.execute((ConnectionCallback<List<String>>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            List<String> missing = new ArrayList<>();
+            for (IndexedColumn required : REQUIRED) {
+                if (!hasLeadingIndex(metaData, required)) {
+                    missing.add(required.table() + "(" + required.column() + ")");
+                }
+            }
+            return missing;
+        });
+    }
+
+    private static boolean hasLeadingIndex(DatabaseMetaData metaData, IndexedColumn required) throws SQLException {
+        String table = identifier(metaData, required.table());
+        String column = identifier(metaData, required.column());
+        try (ResultSet rs = metaData.getIndexInfo(null, null, table, false, true)) {
+            while (rs.next()) {
+                if (rs.getShort("ORDINAL_POSITION") == 1 && column.equals(rs.getString("COLUMN_NAME"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static String identifier(DatabaseMetaData metaData, String name) throws SQLException {
+        if (metaData.storesUpperCaseIdentifiers()) {
+            return name.toUpperCase(Locale.ROOT);
+        }
+        return metaData.storesLowerCaseIdentifiers() ? name.toLowerCase(Locale.ROOT) : name;
+    }
+
+    private record IndexedColumn(String table, String column) {
+    }
+}
@@ -0,0 +1,151 @@
+package ru.yandex.practicum.filmorate.storage.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * LRU-кэш с ограничением по размеру и временем жизни записи.
+ * При переполнении вытесняется давно не использованная запись, просроченные записи удаляются при чтении.
+ * <p>
+ * Значение, прочитанное из БД, кладется через {@link #put(Object, Object, long)} с меткой {@link #stamp()},
+ * взятой до чтения: если между ними была инвалидация, значение могло устареть и не кэшируется.
+ */
+public class BoundedCache<K, V> {
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private long invalidations;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public BoundedCache(int maxSize, Duration ttl) {
+        this(maxSize, ttl, System::nanoTime);
+    }
+
+    public BoundedCache(int maxSize, Duration ttl, LongSupplier nanoClock) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.nanoClock = nanoClock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > BoundedCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public Optional<V> get(K key) {
+        lock.lock();
+        try {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                misses.increment();
+                return Optional.empty();
+            }
+            if (nanoClock.getAsLong() - entry.createdAt() > ttlNanos) {
+                entries.remove(key);
+                expirations.increment();
+                misses.increment();
+                return Optional.empty();
+            }
+            hits.increment();
+            return Optional.of(entry.value());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void put(K key, V value) {
+        lock.lock();
+        try {
+            entries.put(key, new Entry<>(value, nanoClock.getAsLong()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long stamp() {
+        lock.lock();
+        try {
+            return invalidations;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Кладет значение, только если после {@code stamp} не было инвалидаций.
+     *
+     * @return {@code true}, если значение закэшировано
+     */
+    public boolean put(K key, V value, long stamp) {
+        lock.lock();
+        try {
+            if (invalidations != stamp) {
+                return false;
+            }
+            entries.put(key, new Entry<>(value, nanoClock.getAsLong()));
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidate(K key) {
+        lock.lock();
+        try {
+            invalidations++;
+            entries.remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidateIf(Predicate<V> predicate) {
+        lock.lock();
+        try {
+            invalidations++;
+            entries.values().removeIf(entry -> predicate.test(entry.value()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            invalidations++;
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public CacheStats stats() {
+        lock.lock();
+        try {
+            return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), expirations.sum(),
+                    entries.size(), maxSize);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private record Entry<V>(V value, long createdAt) {
+    }
+}
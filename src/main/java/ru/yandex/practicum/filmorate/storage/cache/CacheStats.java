@@ -0,0 +1,4 @@
+package ru.yandex.practicum.filmorate.storage.cache;
+
+public record CacheStats(long hits, long misses, long evictions, long expirations, int size, int maxSize) {
+}
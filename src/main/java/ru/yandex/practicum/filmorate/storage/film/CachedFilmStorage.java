@@ -0,0 +1,191 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.dto.FilmDto;
+import ru.yandex.practicum.filmorate.dto.FilmSummaryDto;
+import ru.yandex.practicum.filmorate.dto.LikePair;
+import ru.yandex.practicum.filmorate.mapper.FilmMapper;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.storage.cache.BoundedCache;
+import ru.yandex.practicum.filmorate.storage.cache.CacheStats;
+import ru.yandex.practicum.filmorate.utils.LongSet;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Кэширует фильмы по ID поверх {@link FilmDbStorage}. Запись сбрасывается при любом изменении фильма или его лайков.
+ * В кэше лежат копии, и наружу отдаются копии, чтобы изменение возвращенного объекта не портило кэш.
+ */
+@Primary
+@Repository
+public class CachedFilmStorage implements FilmStorage {
+    private final FilmDbStorage filmDbStorage;
+    private final BoundedCache<Long, Film> cache;
+
+    public CachedFilmStorage(FilmDbStorage filmDbStorage,
+                             @Value("${filmorate.cache.films.max-size:10000}") int maxSize,
+                             @Value("${filmorate.cache.films.ttl:5m}") Duration ttl) {
+        this.filmDbStorage = filmDbStorage;
+        this.cache = new BoundedCache<>(maxSize, ttl);
+    }
+
+    @Override
+    public Film create(Film film) {
+        return filmDbStorage.create(film);
+    }
+
+    @Override
+    public Film update(Film film) {
+        try {
+            return filmDbStorage.update(film);
+        } finally {
+            cache.invalidate(film.getId());
+        }
+    }
+
+    @Override
+    public Optional<Film> getFilmById(long id) {
+        Optional<Film> cached = cache.get(id);
+        if (cached.isPresent()) {
+            return cached.map(CachedFilmStorage::copy);
+        }
+        long stamp = cache.stamp();
+        Optional<Film> film = filmDbStorage.getFilmById(id);
+        film.ifPresent(f -> cache.put(id, copy(f), stamp));
+        return film;
+    }
+
+    @Override
+    public Collection<Film> getAll() {
+        return filmDbStorage.getAll();
+    }
+
+    @Override
+    public Collection<Film> getPage(long afterId, int limit) {
+        return filmDbStorage.getPage(afterId, limit);
+    }
+
+    @Override
+    public void streamAll(Consumer<Film> consumer) {
+        filmDbStorage.streamAll(consumer);
+    }
+
+    /**
+     * Закэшированный фильм уже содержит все нужное для краткого представления.
+     */
+    @Override
+    public Optional<FilmSummaryDto> getSummaryById(long id) {
+        return cache.get(id)
+                .map(FilmMapper::mapToFilmSummaryDto)
+                .or(() -> filmDbStorage.getSummaryById(id));
+    }
+
+    @Override
+    public Collection<FilmSummaryDto> getAllSummaries() {
+        return filmDbStorage.getAllSummaries();
+    }
+
+    @Override
+    public Collection<FilmSummaryDto> getSummaryPage(long afterId, int limit) {
+        return filmDbStorage.getSummaryPage(afterId, limit);
+    }
+
+    @Override
+    public boolean exists(long id) {
+        return filmDbStorage.exists(id);
+    }
+
+    @Override
+    public Set<Long> getExistingIds(Collection<Long> ids) {
+        return filmDbStorage.getExistingIds(ids);
+    }
+
+    @Override
+    public void delete(long id) {
+        try {
+            filmDbStorage.delete(id);
+        } finally {
+            cache.invalidate(id);
+        }
+    }
+
+    @Override
+    public Collection<FilmDto> getPopularFilms(int count) {
+        return filmDbStorage.getPopularFilms(count);
+    }
+
+    @Override
+    public Collection<FilmSummaryDto> getPopularSummaries(int count) {
+        return filmDbStorage.getPopularSummaries(count);
+    }
+
+    @Override
+    public Collection<FilmSummaryDto> getTrendingSummaries(Duration window, int count) {
+        return filmDbStorage.getTrendingSummaries(window, count);
+    }
+
+    @Override
+    public boolean addLike(long filmId, long userId) {
+        try {
+            return filmDbStorage.addLike(filmId, userId);
+        } finally {
+            cache.invalidate(filmId);
+        }
+    }
+
+    @Override
+    public boolean removeLike(long filmId, long userId) {
+        try {
+            return filmDbStorage.removeLike(filmId, userId);
+        } finally {
+            cache.invalidate(filmId);
+        }
+    }
+
+    @Override
+    public List<LikePair> addLikes(Collection<LikePair> likes) {
+        try {
+            return filmDbStorage.addLikes(likes);
+        } finally {
+            likes.forEach(like -> cache.invalidate(like.getFilmId()));
+        }
+    }
+
+    @Override
+    public List<LikePair> removeLikes(Collection<LikePair> likes) {
+        try {
+            return filmDbStorage.removeLikes(likes);
+        } finally {
+            likes.forEach(like -> cache.invalidate(like.getFilmId()));
+        }
+    }
+
+    /**
+     * Сбрасывает фильмы, в лайках которых есть пользователь: вызывается при удалении пользователя.
+     */
+    public void evictLikesOf(long userId) {
+        cache.invalidateIf(film -> film.getLikes().contains(userId));
+    }
+
+    public CacheStats getCacheStats() {
+        return cache.stats();
+    }
+
+    private static Film copy(Film film) {
+        Set<Genre> genres = new LinkedHashSet<>();
+        film.getGenres().forEach(genre -> genres.add(Genre.builder().id(genre.getId()).name(genre.getName()).build()));
+        Mpa mpa = film.getMpa() != null ? Mpa.builder().id(film.getMpa().getId()).name(film.getMpa().getName()).build() : null;
+        return new Film(film.getId(), film.getName(), film.getDescription(), film.getReleaseDate(),
+                film.getDuration(), LongSet.copyOf(film.getLikes()), genres, mpa);
+    }
+}
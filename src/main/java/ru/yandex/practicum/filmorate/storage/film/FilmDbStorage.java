@@ -1,30 +1,107 @@
 package ru.yandex.practicum.filmorate.storage.film;
 
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.annotation.Primary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.dal.Columns;
 import ru.yandex.practicum.filmorate.dal.film.FilmResultSetExtractor;
+import ru.yandex.practicum.filmorate.dal.film.FilmSummaryRowMapper;
 import ru.yandex.practicum.filmorate.dto.FilmDto;
+import ru.yandex.practicum.filmorate.dto.FilmSummaryDto;
+import ru.yandex.practicum.filmorate.dto.LikePair;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.mapper.FilmMapper;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
-import ru.yandex.practicum.filmorate.model.Mpa;
 import ru.yandex.practicum.filmorate.storage.BaseRepository;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Slf4j
-@Primary
 @Repository
 public class FilmDbStorage extends BaseRepository<Film> implements FilmStorage {
+    private static final Columns GENRE_COLUMNS = Columns.of("film_id", "genre_id", "genre_name");
+    private static final Columns LIKE_COLUMNS = Columns.of("film_id", "like_user_id");
+    private static final int RELATION_FILM_ID = 0;
+    private static final int GENRE_ID = 1;
+    private static final int GENRE_NAME = 2;
+    private static final int LIKE_USER_ID = 1;
+    private static final FilmSummaryRowMapper SUMMARY_MAPPER = new FilmSummaryRowMapper();
 
-    public FilmDbStorage(JdbcTemplate jdbc, FilmResultSetExtractor extractor) {
+    private final FilmResultSetExtractor filmExtractor;
+    private final FilmPopularityIndex popularityIndex;
+    private final boolean popularityIndexEnabled;
+    private final TrendingIndex trendingIndex;
+    private final int streamFetchSize;
+
+    public FilmDbStorage(JdbcTemplate jdbc,
+                         FilmResultSetExtractor extractor,
+                         FilmPopularityIndex popularityIndex,
+                         TrendingIndex trendingIndex,
+                         @Value("${filmorate.popularity-index.enabled:true}") boolean popularityIndexEnabled,
+                         @Value("${filmorate.export.fetch-size:500}") int streamFetchSize) {
         super(jdbc, extractor);
+        this.filmExtractor = extractor;
+        this.popularityIndex = popularityIndex;
+        this.popularityIndexEnabled = popularityIndexEnabled;
+        this.trendingIndex = trendingIndex;
+        this.streamFetchSize = streamFetchSize;
         log.info("FilmResultSetExtractor initialized: {}", extractor != null);
     }
 
+    /**
+     * Заполняет индексы популярности и трендов из БД.
+     */
+    @PostConstruct
+    public void init() {
+        loadPopularityIndex();
+        loadTrendingIndex();
+    }
+
+    private void loadPopularityIndex() {
+        if (!popularityIndexEnabled) {
+            return;
+        }
+        Map<Long, Long> likesByFilm = new HashMap<>();
+        jdbc.query(FIND_LIKES_COUNT, rs -> {
+            likesByFilm.put(rs.getLong("film_id"), rs.getLong("like_count"));
+        });
+        popularityIndex.load(likesByFilm);
+        log.info("Индекс популярности загружен: {} фильмов", likesByFilm.size());
+    }
+
+    /**
+     * Загружает в индекс трендов лайки самого длинного окна. Выборка идет по индексу liked_at,
+     * лайки без времени (поставленные до появления колонки) в тренды не попадают.
+     */
+    private void loadTrendingIndex() {
+        if (!trendingIndex.isEnabled()) {
+            return;
+        }
+        trendingIndex.clear();
+        int[] loaded = {0};
+        jdbc.query(FIND_RECENT_LIKES, rs -> {
+            trendingIndex.recordLike(rs.getLong("film_id"), rs.getObject("liked_at", OffsetDateTime.class).toInstant());
+            loaded[0]++;
+        }, OffsetDateTime.ofInstant(trendingIndex.horizonStart(), ZoneOffset.UTC));
+        log.info("Индекс трендов загружен: {} лайков", loaded[0]);
+    }
+
     private static final String FILM_COLUMNS = """
             f.id AS film_id,
             f.name AS film_name,
@@ -32,24 +109,60 @@ public class FilmDbStorage extends BaseRepository<Film> implements FilmStorage {
             f.release_date AS film_release_date,
             f.duration AS film_duration,
             m.id AS mpa_id,
-            m.name AS mpa_name,
-            g.id AS genre_id,
-            g.name AS genre_name,
-            fl.user_id AS like_user_id""";
+            m.name AS mpa_name""";
 
-    private static final String FILM_JOIN = """
-            JOIN mpa m ON f.mpa_id = m.id
-            LEFT JOIN film_genres fg ON f.id = fg.film_id
-            LEFT JOIN genres g ON fg.genre_id = g.id
-            LEFT JOIN film_likes fl ON f.id = fl.film_id""";
+    private static final String FILM_JOIN = "JOIN mpa m ON f.mpa_id = m.id";
 
     private static final String BASE_SELECT = """
             SELECT %s
             FROM films f
             %s""".formatted(FILM_COLUMNS, FILM_JOIN);
 
-    private static final String FIND_ALL = BASE_SELECT;
+    private static final String FIND_ALL = BASE_SELECT + " ORDER BY f.id";
     private static final String FIND_BY_ID = BASE_SELECT + " WHERE f.id = ?";
+    private static final String EXISTS_BY_ID = "SELECT 1 FROM films WHERE id = ?";
+    private static final String FIND_EXISTING_IDS = "SELECT id FROM films WHERE id IN (%s)";
+    private static final String FIND_BY_IDS = BASE_SELECT + " WHERE f.id IN (%s)";
+    private static final String FIND_PAGE = BASE_SELECT + " WHERE f.id > ? ORDER BY f.id LIMIT ?";
+
+    private static final String SUMMARY_SELECT = """
+            SELECT
+                f.id AS film_id,
+                f.name AS film_name,
+                f.likes_count,
+                m.id AS mpa_id,
+                m.name AS mpa_name
+            FROM films f
+            %s""".formatted(FILM_JOIN);
+
+    private static final String FIND_ALL_SUMMARIES = SUMMARY_SELECT + " ORDER BY f.id";
+    private static final String FIND_SUMMARY_BY_ID = SUMMARY_SELECT + " WHERE f.id = ?";
+    private static final String FIND_SUMMARIES_BY_IDS = SUMMARY_SELECT + " WHERE f.id IN (%s)";
+    private static final String FIND_SUMMARY_PAGE = SUMMARY_SELECT + " WHERE f.id > ? ORDER BY f.id LIMIT ?";
+
+    private static final String FIND_GENRES_BY_FILMS = """
+            SELECT fg.film_id, g.id AS genre_id, g.name AS genre_name
+            FROM film_genres fg
+                JOIN genres g ON fg.genre_id = g.id
+            WHERE fg.film_id IN (%s)
+            ORDER BY fg.film_id, g.id""";
+
+    private static final String FIND_LIKES_BY_FILMS = """
+            SELECT film_id, user_id AS like_user_id
+            FROM film_likes
+            WHERE film_id IN (%s)
+            ORDER BY film_id, user_id""";
+
+    private static final String STREAM_GENRES = """
+            SELECT fg.film_id, g.id AS genre_id, g.name AS genre_name
+            FROM film_genres fg
+                JOIN genres g ON fg.genre_id = g.id
+            ORDER BY fg.film_id, g.id""";
+
+    private static final String STREAM_LIKES = """
+            SELECT film_id, user_id AS like_user_id
+            FROM film_likes
+            ORDER BY film_id, user_id""";
 
     private static final String INSERT = """
             INSERT INTO films (
@@ -73,38 +186,52 @@ public class FilmDbStorage extends BaseRepository<Film> implements FilmStorage {
     private static final String DELETE_FILM = "DELETE FROM films WHERE id = ?";
     private static final String DELETE_GENRES = "DELETE FROM film_genres WHERE film_id = ?";
     private static final String INSERT_GENRE = "INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)";
-    private static final String INSERT_LIKE = "INSERT INTO film_likes (film_id, user_id) VALUES (?, ?)";
     private static final String DELETE_LIKE = "DELETE FROM film_likes WHERE film_id = ? AND user_id = ?";
     private static final String DELETE_LIKES = "DELETE FROM film_likes WHERE film_id = ?";
+    private static final String MERGE_LIKE = """
+            MERGE INTO film_likes t
+            USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS TIMESTAMP WITH TIME ZONE)))
+                AS s (film_id, user_id, liked_at)
+                ON t.film_id = s.film_id AND t.user_id = s.user_id
+            WHEN NOT MATCHED THEN
+                INSERT (film_id, user_id, liked_at) VALUES (s.film_id, s.user_id, s.liked_at)""";
+
+    private static final String FIND_LIKED_AT = """
+            SELECT film_id, user_id, liked_at
+            FROM film_likes
+            WHERE (film_id, user_id) IN (%s) AND liked_at IS NOT NULL""";
+
+    private static final String FIND_RECENT_LIKES = "SELECT film_id, liked_at FROM film_likes WHERE liked_at >= ?";
+
+    private static final String FIND_TRENDING_IDS = """
+            SELECT film_id
+            FROM film_likes
+            WHERE liked_at >= ?
+            GROUP BY film_id
+            ORDER BY COUNT(*) DESC, film_id
+            LIMIT ?""";
+
+    private static final String INCREMENT_LIKES_COUNT = "UPDATE films SET likes_count = likes_count + ? WHERE id = ?";
+
+    private static final String FIND_POPULAR_IDS = """
+            SELECT id
+            FROM films
+            ORDER BY likes_count DESC, id
+            LIMIT ?""";
 
-    private static final String POPULAR_SUBQUERY = """
-            SELECT f.id AS film_id, COUNT(fl.user_id) AS like_count
+    private static final String FIND_LIKES_COUNT = "SELECT id AS film_id, likes_count AS like_count FROM films";
+
+    private static final String FIND_LIKES_COUNT_DRIFT = """
+            SELECT f.id AS film_id, f.likes_count AS like_count, COUNT(fl.user_id) AS actual_count
             FROM films f
                 LEFT JOIN film_likes fl ON f.id = fl.film_id
-            GROUP BY f.id
-            ORDER BY like_count DESC
-            LIMIT ?""";
+            GROUP BY f.id, f.likes_count
+            HAVING f.likes_count <> COUNT(fl.user_id)""";
 
-    private static final String FIND_POPULAR = """
-            SELECT
-                f.id AS film_id,
-                f.name AS film_name,
-                f.description AS film_description,
-                f.release_date AS film_release_date,
-                f.duration AS film_duration,
-                m.id AS mpa_id,
-                m.name AS mpa_name,
-                g.id AS genre_id,
-                g.name AS genre_name,
-                fl.user_id AS like_user_id,
-                l.like_count
-            FROM(%s) as l
-            LEFT JOIN FILMS f on l.film_id = f.id
-            LEFT JOIN mpa m ON f.mpa_id = m.id
-            LEFT JOIN film_genres fg ON f.id = fg.film_id
-            LEFT JOIN genres g ON fg.genre_id = g.id
-            LEFT JOIN film_likes fl ON f.id = fl.film_id
-            ORDER BY l.like_count DESC""".formatted(POPULAR_SUBQUERY);
+    private static final String RECOUNT_LIKES = """
+            UPDATE films f
+            SET likes_count = (SELECT COUNT(*) FROM film_likes fl WHERE fl.film_id = f.id)
+            WHERE f.id = ?""";
 
     @Override
     public Film create(Film film) {
@@ -117,6 +244,9 @@ public class FilmDbStorage extends BaseRepository<Film> implements FilmStorage {
         );
         film.setId(id);
         insertGenres(film);
+        if (popularityIndexEnabled) {
+            afterCommit(() -> popularityIndex.register(id));
+        }
         log.info("Добавлен фильм: {}", film);
         return film;
     }
@@ -138,12 +268,98 @@ public class FilmDbStorage extends BaseRepository<Film> implements FilmStorage {
 
     @Override
     public Optional<Film> getFilmById(long id) {
-        return findOne(FIND_BY_ID, id);
+        Optional<Film> film = findOne(FIND_BY_ID, id);
+        film.ifPresent(f -> loadRelations(List.of(f)));
+        return film;
     }
 
     @Override
     public Collection<Film> getAll() {
-        return findMany(FIND_ALL);
+        List<Film> films = findMany(FIND_ALL);
+        loadRelations(films);
+        return films;
+    }
+
+    @Override
+    public Collection<Film> getPage(long afterId, int limit) {
+        List<Film> films = findMany(FIND_PAGE, afterId, limit);
+        loadRelations(films);
+        return films;
+    }
+
+    /**
+     * Выгружает все фильмы по одному: фильмы, жанры и лайки читаются тремя курсорами, упорядоченными по ID фильма,
+     * и сливаются по границе film_id. Память не зависит от размера таблиц.
+     */
+    @Override
+    public void streamAll(Consumer<Film> consumer) {
+        jdbc.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement films = prepareStreaming(connection, FIND_ALL);
+                 PreparedStatement genres = prepareStreaming(connection, STREAM_GENRES);
+                 PreparedStatement likes = prepareStreaming(connection, STREAM_LIKES);
+                 ResultSet filmRs = films.executeQuery();
+                 ResultSet genreRs = genres.executeQuery();
+                 ResultSet likeRs = likes.executeQuery()) {
+                int[] filmColumns = filmExtractor.resolve(filmRs);
+                int[] genreColumns = GENRE_COLUMNS.resolve(genreRs);
+                int[] likeColumns = LIKE_COLUMNS.resolve(likeRs);
+                boolean hasGenre = genreRs.next();
+                boolean hasLike = likeRs.next();
+
+                while (filmRs.next()) {
+                    Film film = filmExtractor.mapFilm(filmRs, filmColumns);
+                    long filmId = film.getId();
+
+                    while (hasGenre && genreRs.getLong(genreColumns[RELATION_FILM_ID]) <= filmId) {
+                        if (genreRs.getLong(genreColumns[RELATION_FILM_ID]) == filmId) {
+                            film.getGenres().add(mapGenre(genreRs, genreColumns));
+                        }
+                        hasGenre = genreRs.next();
+                    }
+                    while (hasLike && likeRs.getLong(likeColumns[RELATION_FILM_ID]) <= filmId) {
+                        if (likeRs.getLong(likeColumns[RELATION_FILM_ID]) == filmId) {
+                            film.getLikes().add(likeRs.getLong(likeColumns[LIKE_USER_ID]));
+                        }
+                        hasLike = likeRs.next();
+                    }
+
+                    consumer.accept(film);
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public Optional<FilmSummaryDto> getSummaryById(long id) {
+        return findSummaries(FIND_SUMMARY_BY_ID, FIND_SUMMARY_BY_ID, id).stream().findFirst();
+    }
+
+    @Override
+    public Collection<FilmSummaryDto> getAllSummaries() {
+        return findSummaries(FIND_ALL_SUMMARIES, FIND_ALL_SUMMARIES);
+    }
+
+    @Override
+    public Collection<FilmSummaryDto> getSummaryPage(long afterId, int limit) {
+        return findSummaries(FIND_SUMMARY_PAGE, FIND_SUMMARY_PAGE, afterId, limit);
+    }
+
+    private PreparedStatement prepareStreaming(Connection connection, String query) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(query,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        statement.setFetchSize(streamFetchSize);
+        return statement;
+    }
+
+    @Override
+    public boolean exists(long id) {
+        return exists(EXISTS_BY_ID, id);
+    }
+
+    @Override
+    public Set<Long> getExistingIds(Collection<Long> ids) {
+        return findExistingIds(FIND_EXISTING_IDS, ids);
     }
 
     @Override
@@ -151,69 +367,339 @@ public class FilmDbStorage extends BaseRepository<Film> implements FilmStorage {
         delete(DELETE_LIKES, id);
         delete(DELETE_GENRES, id);
         delete(DELETE_FILM, id);
+        if (popularityIndexEnabled) {
+            afterCommit(() -> popularityIndex.remove(id));
+        }
+        if (trendingIndex.isEnabled()) {
+            afterCommit(() -> trendingIndex.remove(id));
+        }
         log.info("Удален фильм с ID {}", id);
     }
 
     @Override
     public Collection<FilmDto> getPopularFilms(int count) {
-        Map<Long, FilmDto> filmMap = new LinkedHashMap<>();
-
-        jdbc.query(FIND_POPULAR, (rs) -> {
-            while (rs.next()) {
-
-                long filmId = rs.getLong("film_id");
-                FilmDto film = filmMap.computeIfAbsent(filmId, k -> {
-                    try {
-                        return FilmDto.builder()
-                                .id(rs.getLong("film_id"))
-                                .name(rs.getString("film_name"))
-                                .description(rs.getString("film_description"))
-                                .releaseDate(rs.getDate("film_release_date").toLocalDate())
-                                .duration(rs.getInt("film_duration"))
-                                .mpa(Mpa.builder().build())
-                                .genres(new HashSet<>())
-                                .likes(new HashSet<>())
-                                .likesCount(rs.getLong("like_count"))
-                                .build();
-                    } catch (SQLException e) {
-                        throw new RuntimeException("Ошибка маппинга", e);
-                    }
-                });
-                film.setMpa(Mpa.builder()
-                        .id(rs.getLong("mpa_id"))
-                        .name(rs.getString("mpa_name"))
-                        .build());
-
-                Long genreId = rs.getObject("genre_id", Long.class);
-                if (genreId != null && genreId != 0) {
-                    film.getGenres().add(Genre.builder()
-                            .id(genreId)
-                            .name(rs.getString("genre_name"))
-                            .build());
-                }
+        List<Long> ids = popularIds(count);
+        Map<Long, Film> films = findByIds(ids);
 
-                Long userId = rs.getObject("user_id", Long.class);
-                if (userId != null && userId != 0) {
-                    film.getLikes().add(userId);
+        return ids.stream()
+                .map(films::get)
+                .filter(Objects::nonNull)
+                .map(film -> {
+                    FilmDto dto = FilmMapper.mapToFilmDto(film);
+                    dto.setLikes(film.getLikes());
+                    dto.setLikesCount(film.getLikes().size());
+                    return dto;
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Топ фильмов в кратком виде: количество лайков берется из счетчика likes_count, film_likes не читается.
+     */
+    @Override
+    public Collection<FilmSummaryDto> getPopularSummaries(int count) {
+        return findSummariesInOrder(popularIds(count));
+    }
+
+    /**
+     * Топ фильмов по лайкам за окно. С индексом трендов лайки взвешиваются по давности и film_likes не читается,
+     * без него фильмы упорядочиваются по числу лайков окна.
+     */
+    @Override
+    public Collection<FilmSummaryDto> getTrendingSummaries(Duration window, int count) {
+        if (!trendingIndex.supports(window)) {
+            throw new ValidationException("Окно трендов " + window + " не поддерживается, доступны: "
+                    + trendingIndex.getWindows());
+        }
+        return findSummariesInOrder(trendingIds(window, count));
+    }
+
+    private List<Long> trendingIds(Duration window, int count) {
+        if (trendingIndex.isEnabled()) {
+            return trendingIndex.top(window, count);
+        }
+        OffsetDateTime since = OffsetDateTime.now(ZoneOffset.UTC).minus(window);
+        return measure(FIND_TRENDING_IDS, () -> jdbc.queryForList(FIND_TRENDING_IDS, Long.class, since, count));
+    }
+
+    private List<FilmSummaryDto> findSummariesInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, FilmSummaryDto> summaries = findSummaries(FIND_SUMMARIES_BY_IDS,
+                FIND_SUMMARIES_BY_IDS.formatted(placeholders(ids.size())), ids.toArray()).stream()
+                .collect(Collectors.toMap(FilmSummaryDto::getId, summary -> summary));
+
+        return ids.stream()
+                .map(summaries::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private List<Long> popularIds(int count) {
+        return popularityIndexEnabled
+                ? popularityIndex.top(count)
+                : measure(FIND_POPULAR_IDS, () -> jdbc.queryForList(FIND_POPULAR_IDS, Long.class, count));
+    }
+
+    /**
+     * Идемпотентно добавляет лайк. Время лайка берется по часам индекса трендов и пишется в liked_at,
+     * чтобы снятие лайка попало в ту же корзину.
+     *
+     * @return {@code true}, если лайка еще не было
+     */
+    @Override
+    @Transactional
+    public boolean addLike(long filmId, long userId) {
+        Instant likedAt = trendingIndex.now();
+        if (execute(MERGE_LIKE, filmId, userId, OffsetDateTime.ofInstant(likedAt, ZoneOffset.UTC)) == 0) {
+            return false;
+        }
+        changeLikesCount(filmId, 1);
+        if (trendingIndex.isEnabled()) {
+            afterCommit(() -> trendingIndex.recordLike(filmId, likedAt));
+        }
+        return true;
+    }
+
+    /**
+     * Идемпотентно удаляет лайк.
+     *
+     * @return {@code true}, если лайк был удален
+     */
+    @Override
+    @Transactional
+    public boolean removeLike(long filmId, long userId) {
+        List<LikePair> like = List.of(new LikePair(filmId, userId));
+        Map<LikePair, Instant> likedAt = findLikedAt(like);
+        if (!delete(DELETE_LIKE, filmId, userId)) {
+            return false;
+        }
+        changeLikesCount(filmId, -1);
+        forgetTrending(like, likedAt);
+        return true;
+    }
+
+    private void changeLikesCount(long filmId, int delta) {
+        update(INCREMENT_LIKES_COUNT, delta, filmId);
+        if (popularityIndexEnabled) {
+            afterCommit(() -> popularityIndex.increment(filmId, delta));
+        }
+    }
+
+    /**
+     * Добавляет лайки пачками. Уже существующие пары пропускаются.
+     *
+     * @return пары, которые действительно были добавлены
+     */
+    @Override
+    @Transactional
+    public List<LikePair> addLikes(Collection<LikePair> likes) {
+        Instant likedAt = trendingIndex.now();
+        List<LikePair> added = writeLikes(MERGE_LIKE, likes, OffsetDateTime.ofInstant(likedAt, ZoneOffset.UTC));
+        applyLikesDelta(added, 1);
+        if (trendingIndex.isEnabled()) {
+            afterCommit(() -> added.forEach(like -> trendingIndex.recordLike(like.getFilmId(), likedAt)));
+        }
+        return added;
+    }
+
+    /**
+     * Удаляет лайки пачками. Отсутствующие пары пропускаются.
+     *
+     * @return пары, которые действительно были удалены
+     */
+    @Override
+    @Transactional
+    public List<LikePair> removeLikes(Collection<LikePair> likes) {
+        Map<LikePair, Instant> likedAt = findLikedAt(likes);
+        List<LikePair> removed = writeLikes(DELETE_LIKE, likes);
+        applyLikesDelta(removed, -1);
+        forgetTrending(removed, likedAt);
+        return removed;
+    }
+
+    /**
+     * Время удаляемых лайков: индекс трендов снимает лайк с той корзины, в которую он был записан.
+     * Читается только при включенном индексе.
+     */
+    private Map<LikePair, Instant> findLikedAt(Collection<LikePair> likes) {
+        if (!trendingIndex.isEnabled() || likes.isEmpty()) {
+            return Map.of();
+        }
+        Map<LikePair, Instant> likedAt = new HashMap<>();
+        for (List<LikePair> batch : partition(List.copyOf(new HashSet<>(likes)))) {
+            String query = FIND_LIKED_AT.formatted(pairPlaceholders(batch.size()));
+            Object[] params = new Object[batch.size() * 2];
+            for (int i = 0; i < batch.size(); i++) {
+                params[2 * i] = batch.get(i).getFilmId();
+                params[2 * i + 1] = batch.get(i).getUserId();
+            }
+            measure(FIND_LIKED_AT, () -> {
+                jdbc.query(query, rs -> {
+                    likedAt.put(new LikePair(rs.getLong("film_id"), rs.getLong("user_id")),
+                            rs.getObject("liked_at", OffsetDateTime.class).toInstant());
+                }, params);
+                return null;
+            });
+        }
+        return likedAt;
+    }
+
+    private void forgetTrending(List<LikePair> removed, Map<LikePair, Instant> likedAt) {
+        if (likedAt.isEmpty()) {
+            return;
+        }
+        afterCommit(() -> removed.forEach(like -> {
+            Instant at = likedAt.get(like);
+            if (at != null) {
+                trendingIndex.recordUnlike(like.getFilmId(), at);
+            }
+        }));
+    }
+
+    /**
+     * Драйвер может вернуть {@link Statement#SUCCESS_NO_INFO} вместо числа строк. Такая строка считается измененной:
+     * пропустить реальное изменение хуже, а лишний счет исправит ночная сверка likes_count.
+     * {@code extraParams} подставляются после пары (фильм, пользователь) одинаково для всех строк.
+     */
+    private List<LikePair> writeLikes(String query, Collection<LikePair> likes, Object... extraParams) {
+        List<LikePair> changed = new ArrayList<>();
+        for (List<LikePair> batch : partition(List.copyOf(likes))) {
+            int[] counts = measure(query, () -> jdbc.batchUpdate(query, batch, batch.size(), (ps, like) -> {
+                ps.setLong(1, like.getFilmId());
+                ps.setLong(2, like.getUserId());
+                for (int i = 0; i < extraParams.length; i++) {
+                    ps.setObject(3 + i, extraParams[i]);
                 }
-                Long likeCount = rs.getObject("like_count", Long.class);
-                if (likeCount != null && likeCount != 0) {
-                    film.getLikes().add(userId);
+            })[0]);
+            int before = changed.size();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+                    changed.add(batch.get(i));
                 }
             }
-        }, count);
+            recordRows(query, changed.size() - before);
+        }
+        return changed;
+    }
 
-        return filmMap.values();
+    private void applyLikesDelta(List<LikePair> changed, int sign) {
+        if (changed.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> deltaByFilm = changed.stream()
+                .collect(Collectors.groupingBy(LikePair::getFilmId, Collectors.counting()));
+        List<Object[]> batch = deltaByFilm.entrySet().stream()
+                .map(entry -> new Object[]{sign * entry.getValue(), entry.getKey()})
+                .collect(Collectors.toList());
+        measure(INCREMENT_LIKES_COUNT, () -> jdbc.batchUpdate(INCREMENT_LIKES_COUNT, batch));
+
+        if (popularityIndexEnabled) {
+            afterCommit(() -> deltaByFilm.forEach((filmId, delta) -> popularityIndex.increment(filmId, sign * delta)));
+        }
     }
 
-    @Override
-    public void addLike(long filmId, long userId) {
-        update(INSERT_LIKE, filmId, userId);
+    /**
+     * Пересчитывает счетчики лайков, разошедшиеся с film_likes. Индекс популярности получает те же поправки,
+     * а не перезагружается целиком, чтобы не потерять лайки, записанные параллельно.
+     *
+     * @return расхождения до исправления: ID фильма -> (счетчик - фактическое количество)
+     */
+    @Transactional
+    public Map<Long, Long> reconcileLikeCounts() {
+        Map<Long, Long> drift = new HashMap<>();
+        jdbc.query(FIND_LIKES_COUNT_DRIFT, rs -> {
+            drift.put(rs.getLong("film_id"), rs.getLong("like_count") - rs.getLong("actual_count"));
+        });
+        if (drift.isEmpty()) {
+            return drift;
+        }
+
+        List<Object[]> batch = drift.keySet().stream()
+                .map(id -> new Object[]{id})
+                .collect(Collectors.toList());
+        jdbc.batchUpdate(RECOUNT_LIKES, batch);
+        if (popularityIndexEnabled) {
+            afterCommit(() -> drift.forEach((filmId, delta) -> popularityIndex.increment(filmId, -delta)));
+        }
+        return drift;
     }
 
-    @Override
-    public void removeLike(long filmId, long userId) {
-        update(DELETE_LIKE, filmId, userId);
+    private Map<Long, Film> findByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        String query = FIND_BY_IDS.formatted(placeholders(ids.size()));
+        Map<Long, Film> films = queryEntities(FIND_BY_IDS, query, ids.toArray());
+        loadRelations(films.values());
+        return films;
+    }
+
+    /**
+     * Догружает жанры и лайки отдельными запросами по списку ID фильмов, чтобы количество прочитанных строк
+     * росло как жанры + лайки, а не как их произведение.
+     */
+    private void loadRelations(Collection<Film> films) {
+        if (films.isEmpty()) {
+            return;
+        }
+        Map<Long, Film> filmsById = films.stream()
+                .collect(Collectors.toMap(Film::getId, film -> film));
+        loadGenres(films.stream().collect(Collectors.toMap(Film::getId, Film::getGenres)));
+
+        for (List<Long> ids : partition(new ArrayList<>(filmsById.keySet()))) {
+            String inClause = placeholders(ids.size());
+            Object[] params = ids.toArray();
+
+            Integer likeRows = measure(FIND_LIKES_BY_FILMS, () -> jdbc.query(FIND_LIKES_BY_FILMS.formatted(inClause),
+                    rs -> {
+                        int[] columns = LIKE_COLUMNS.resolve(rs);
+                        int rows = 0;
+                        while (rs.next()) {
+                            filmsById.get(rs.getLong(columns[RELATION_FILM_ID])).getLikes()
+                                    .add(rs.getLong(columns[LIKE_USER_ID]));
+                            rows++;
+                        }
+                        return rows;
+                    }, params));
+            recordRows(FIND_LIKES_BY_FILMS, likeRows != null ? likeRows : 0);
+        }
+    }
+
+    private void loadGenres(Map<Long, Set<Genre>> genresByFilm) {
+        for (List<Long> ids : partition(new ArrayList<>(genresByFilm.keySet()))) {
+            String query = FIND_GENRES_BY_FILMS.formatted(placeholders(ids.size()));
+            Integer genreRows = measure(FIND_GENRES_BY_FILMS, () -> jdbc.query(query, rs -> {
+                int[] columns = GENRE_COLUMNS.resolve(rs);
+                int rows = 0;
+                while (rs.next()) {
+                    genresByFilm.get(rs.getLong(columns[RELATION_FILM_ID])).add(mapGenre(rs, columns));
+                    rows++;
+                }
+                return rows;
+            }, ids.toArray()));
+            recordRows(FIND_GENRES_BY_FILMS, genreRows != null ? genreRows : 0);
+        }
+    }
+
+    /**
+     * Читает краткие представления и догружает к ним жанры. Метрики пишутся по шаблону запроса.
+     */
+    private List<FilmSummaryDto> findSummaries(String template, String query, Object... params) {
+        List<FilmSummaryDto> summaries = measure(template, () -> jdbc.query(query, SUMMARY_MAPPER.forQuery(), params));
+        recordRows(template, summaries.size());
+        if (!summaries.isEmpty()) {
+            loadGenres(summaries.stream().collect(Collectors.toMap(FilmSummaryDto::getId, FilmSummaryDto::getGenres)));
+        }
+        return summaries;
+    }
+
+    private static Genre mapGenre(ResultSet rs, int[] columns) throws SQLException {
+        return Genre.builder()
+                .id(rs.getLong(columns[GENRE_ID]))
+                .name(rs.getString(columns[GENRE_NAME]))
+                .build();
     }
 
     private void updateGenres(Film film) {
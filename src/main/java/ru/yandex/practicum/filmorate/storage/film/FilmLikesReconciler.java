@@ -0,0 +1,30 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+@Slf4j
+@Component
+public class FilmLikesReconciler {
+    private final FilmDbStorage filmDbStorage;
+
+    public FilmLikesReconciler(FilmDbStorage filmDbStorage) {
+        this.filmDbStorage = filmDbStorage;
+    }
+
+    @Scheduled(cron = "${filmorate.likes.reconcile.cron:0 0 4 * * *}")
+    public Map<Long, Long> reconcile() {
+        Map<Long, Long> drift = filmDbStorage.reconcileLikeCounts();
+        if (drift.isEmpty()) {
+            log.info("Счетчики лайков совпадают с film_likes");
+            return drift;
+        }
+        drift.forEach((filmId, diff) ->
+                log.warn("Счетчик лайков фильма с ID {} расходился с film_likes на {}", filmId, diff));
+        log.warn("Пересчитаны счетчики лайков у {} фильмов", drift.size());
+        return drift;
+    }
+}
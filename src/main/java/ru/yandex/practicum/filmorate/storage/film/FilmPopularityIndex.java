@@ -0,0 +1,102 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Индекс популярности фильмов: количество лайков по каждому фильму, отсортированное по убыванию.
+ * Поддерживается инкрементально при добавлении/удалении лайков, поэтому топ-N отдается без обращения к БД.
+ */
+@Component
+public class FilmPopularityIndex {
+    private static final Comparator<Entry> ORDER = Comparator.comparingLong(Entry::likes).reversed()
+            .thenComparingLong(Entry::filmId);
+
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final NavigableSet<Entry> ranking = new TreeSet<>(ORDER);
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void load(Map<Long, Long> likesByFilm) {
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            ranking.clear();
+            likesByFilm.forEach(this::put);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void register(long filmId) {
+        lock.writeLock().lock();
+        try {
+            if (!entries.containsKey(filmId)) {
+                put(filmId, 0L);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void increment(long filmId, long delta) {
+        lock.writeLock().lock();
+        try {
+            Entry current = entries.get(filmId);
+            long likes = current != null ? current.likes() : 0L;
+            if (current != null) {
+                ranking.remove(current);
+            }
+            put(filmId, Math.max(0L, likes + delta));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long filmId) {
+        lock.writeLock().lock();
+        try {
+            Entry current = entries.remove(filmId);
+            if (current != null) {
+                ranking.remove(current);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Long> top(int count) {
+        lock.readLock().lock();
+        try {
+            List<Long> ids = new ArrayList<>(Math.min(count, ranking.size()));
+            Iterator<Entry> iterator = ranking.iterator();
+            while (iterator.hasNext() && ids.size() < count) {
+                ids.add(iterator.next().filmId());
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getLikes(long filmId) {
+        lock.readLock().lock();
+        try {
+            Entry entry = entries.get(filmId);
+            return entry != null ? entry.likes() : 0L;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void put(long filmId, long likes) {
+        Entry entry = new Entry(filmId, likes);
+        entries.put(filmId, entry);
+        ranking.add(entry);
+    }
+
+    private record Entry(long filmId, long likes) {
+    }
+}
@@ -1,10 +1,16 @@
 package ru.yandex.practicum.filmorate.storage.film;
 
 import ru.yandex.practicum.filmorate.dto.FilmDto;
+import ru.yandex.practicum.filmorate.dto.FilmSummaryDto;
+import ru.yandex.practicum.filmorate.dto.LikePair;
 import ru.yandex.practicum.filmorate.model.Film;
 
+import java.time.Duration;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface FilmStorage {
     Film create(Film film);
@@ -15,11 +21,33 @@ public interface FilmStorage {
 
     Collection<Film> getAll();
 
+    Collection<Film> getPage(long afterId, int limit);
+
+    void streamAll(Consumer<Film> consumer);
+
+    Optional<FilmSummaryDto> getSummaryById(long id);
+
+    Collection<FilmSummaryDto> getAllSummaries();
+
+    Collection<FilmSummaryDto> getSummaryPage(long afterId, int limit);
+
     void delete(long id);
 
+    boolean exists(long id);
+
+    Set<Long> getExistingIds(Collection<Long> ids);
+
     Collection<FilmDto> getPopularFilms(int count);
 
-    void addLike(long filmId, long userId);
+    Collection<FilmSummaryDto> getPopularSummaries(int count);
+
+    Collection<FilmSummaryDto> getTrendingSummaries(Duration window, int count);
+
+    boolean addLike(long filmId, long userId);
+
+    boolean removeLike(long filmId, long userId);
+
+    List<LikePair> addLikes(Collection<LikePair> likes);
 
-    void removeLike(long filmId, long userId);
+    List<LikePair> removeLikes(Collection<LikePair> likes);
 }
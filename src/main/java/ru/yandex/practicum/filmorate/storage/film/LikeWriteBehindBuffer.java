@@ -0,0 +1,370 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.dto.LikePair;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+import ru.yandex.practicum.filmorate.utils.LongSet;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Отложенная запись лайков ({@code filmorate.likes.write-behind.enabled}).
+ * Операции копятся в ограниченном буфере, где для каждой пары (фильм, пользователь) остается только последняя:
+ * лайк и снятие лайка схлопываются в одну идемпотентную операцию. Фоновый поток пишет буфер пакетами
+ * по {@code batch-size} или раз в {@code flush-interval}. Если буфер заполнен, запись выполняет вызывающий поток.
+ * Операция из пакета, который не удалось записать {@code max-retries} раз подряд, пишется отдельно,
+ * а при новой ошибке отбрасывается с записью в лог.
+ */
+@Slf4j
+@Component
+public class LikeWriteBehindBuffer {
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final boolean enabled;
+    private final int capacity;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final int maxRetries;
+
+    private final Lock lock = new ReentrantLock();
+    private final Condition batchReady = lock.newCondition();
+    /**
+     * Упорядочивает записи пакетов, чтобы более поздняя операция над парой не обогнала раннюю.
+     */
+    private final Lock flushLock = new ReentrantLock();
+    private Map<Long, Map<Long, Boolean>> pending = new HashMap<>();
+    private Map<Long, Map<Long, Boolean>> inFlight = Map.of();
+    /**
+     * Число неудачных попыток записи по парам (фильм, пользователь), которые вернулись в буфер.
+     */
+    private final Map<Long, Map<Long, Integer>> attempts = new HashMap<>();
+    private int size;
+    private volatile boolean running;
+    private Thread flusher;
+
+    public LikeWriteBehindBuffer(FilmStorage filmStorage,
+                                 UserStorage userStorage,
+                                 @Value("${filmorate.likes.write-behind.enabled:false}") boolean enabled,
+                                 @Value("${filmorate.likes.write-behind.capacity:10000}") int capacity,
+                                 @Value("${filmorate.likes.write-behind.batch-size:500}") int batchSize,
+                                 @Value("${filmorate.likes.write-behind.flush-interval:200ms}") Duration flushInterval,
+                                 @Value("${filmorate.likes.write-behind.max-retries:3}") int maxRetries) {
+        this.filmStorage = filmStorage;
+        this.userStorage = userStorage;
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.maxRetries = maxRetries;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        flusher = Thread.ofPlatform().name("likes-write-behind").daemon().start(this::run);
+        log.info("Отложенная запись лайков включена: буфер {}, пакет {}, интервал {} мс",
+                capacity, batchSize, flushInterval.toMillis());
+    }
+
+    /**
+     * Дописывает буфер перед остановкой. Поток записи не прерывается: прерывание во время работы с файлом H2
+     * закрывает его.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        lock.lock();
+        try {
+            running = false;
+            batchReady.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        flusher.join();
+        flush();
+        log.info("Отложенная запись лайков остановлена, буфер записан");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void addLike(long filmId, long userId) {
+        submit(filmId, userId, true);
+    }
+
+    public void removeLike(long filmId, long userId) {
+        submit(filmId, userId, false);
+    }
+
+    /**
+     * Возвращает фильм с учетом еще не записанных лайков. Исходный объект не меняется.
+     */
+    public Film overlay(Film film) {
+        Map<Long, Boolean> changes = new HashMap<>();
+        lock.lock();
+        try {
+            changes.putAll(inFlight.getOrDefault(film.getId(), Map.of()));
+            changes.putAll(pending.getOrDefault(film.getId(), Map.of()));
+        } finally {
+            lock.unlock();
+        }
+        if (changes.isEmpty()) {
+            return film;
+        }
+        LongSet likes = LongSet.copyOf(film.getLikes());
+        changes.forEach((userId, liked) -> {
+            if (liked) {
+                likes.add(userId);
+            } else {
+                likes.remove(userId);
+            }
+        });
+        return new Film(film.getId(), film.getName(), film.getDescription(), film.getReleaseDate(),
+                film.getDuration(), likes, film.getGenres(), film.getMpa());
+    }
+
+    public boolean hasPending(long filmId) {
+        lock.lock();
+        try {
+            return pending.containsKey(filmId) || inFlight.containsKey(filmId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Записывает все накопленные операции в БД.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            Map<Long, Map<Long, Boolean>> batch;
+            lock.lock();
+            try {
+                if (size == 0) {
+                    return;
+                }
+                batch = pending;
+                inFlight = batch;
+                pending = new HashMap<>();
+                size = 0;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                write(batch);
+                forgetAttempts(batch);
+            } catch (RuntimeException e) {
+                log.error("Не удалось записать пакет лайков, операции возвращены в буфер", e);
+                requeue(batch).forEach(this::writeSeparately);
+            } finally {
+                lock.lock();
+                try {
+                    inFlight = Map.of();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Флаг {@code running} проверяется под тем же замком, под которым его снимает {@link #stop()}:
+     * принятая операция гарантированно попадает в последнюю запись буфера.
+     */
+    private void submit(long filmId, long userId, boolean liked) {
+        if (offer(filmId, userId, liked)) {
+            return;
+        }
+        if (!running) {
+            writeNow(filmId, userId, liked);
+            return;
+        }
+        log.debug("Буфер лайков заполнен, запись выполняет поток запроса");
+        flush();
+        if (!offer(filmId, userId, liked)) {
+            writeNow(filmId, userId, liked);
+        }
+    }
+
+    private boolean offer(long filmId, long userId, boolean liked) {
+        lock.lock();
+        try {
+            if (!running) {
+                return false;
+            }
+            Map<Long, Boolean> users = pending.computeIfAbsent(filmId, id -> new HashMap<>());
+            if (!users.containsKey(userId)) {
+                if (size >= capacity) {
+                    if (users.isEmpty()) {
+                        pending.remove(filmId);
+                    }
+                    return false;
+                }
+                size++;
+            }
+            users.put(userId, liked);
+            forgetAttempt(filmId, userId);
+            if (size >= batchSize) {
+                batchReady.signal();
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Прямая запись тоже идет под {@code flushLock}, чтобы не обогнать пакет с более ранней операцией над парой.
+     */
+    private void writeNow(long filmId, long userId, boolean liked) {
+        flushLock.lock();
+        try {
+            if (liked) {
+                filmStorage.addLike(filmId, userId);
+            } else {
+                filmStorage.removeLike(filmId, userId);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Фильм или пользователь могли быть удалены, пока операция ждала в буфере, поэтому существование
+     * проверяется повторно одним запросом на таблицу.
+     */
+    private void write(Map<Long, Map<Long, Boolean>> batch) {
+        Set<Long> userIds = new HashSet<>();
+        batch.values().forEach(users -> userIds.addAll(users.keySet()));
+        Set<Long> films = filmStorage.getExistingIds(batch.keySet());
+        Set<Long> users = userStorage.getExistingIds(userIds);
+
+        List<LikePair> likes = new ArrayList<>();
+        List<LikePair> unlikes = new ArrayList<>();
+        batch.forEach((filmId, changes) -> changes.forEach((userId, liked) -> {
+            if (films.contains(filmId) && users.contains(userId)) {
+                (liked ? likes : unlikes).add(new LikePair(filmId, userId));
+            }
+        }));
+        if (!likes.isEmpty()) {
+            filmStorage.addLikes(likes);
+        }
+        if (!unlikes.isEmpty()) {
+            filmStorage.removeLikes(unlikes);
+        }
+        log.debug("Записан пакет лайков: добавлено {}, снято {}", likes.size(), unlikes.size());
+    }
+
+    /**
+     * Возвращает операции пакета в буфер. Более новые операции, пришедшие во время записи, не перезаписываются.
+     * Операции, исчерпавшие {@code max-retries}, не возвращаются, а отдаются для записи по одной.
+     */
+    private Map<Long, Map<Long, Boolean>> requeue(Map<Long, Map<Long, Boolean>> batch) {
+        Map<Long, Map<Long, Boolean>> exhausted = new HashMap<>();
+        lock.lock();
+        try {
+            batch.forEach((filmId, changes) -> {
+                Map<Long, Boolean> users = pending.computeIfAbsent(filmId, id -> new HashMap<>());
+                changes.forEach((userId, liked) -> {
+                    if (users.containsKey(userId)) {
+                        return;
+                    }
+                    int failed = attempts.computeIfAbsent(filmId, id -> new HashMap<>()).merge(userId, 1, Integer::sum);
+                    if (failed > maxRetries) {
+                        forgetAttempt(filmId, userId);
+                        exhausted.computeIfAbsent(filmId, id -> new HashMap<>()).put(userId, liked);
+                    } else {
+                        users.put(userId, liked);
+                        size++;
+                    }
+                });
+                if (users.isEmpty()) {
+                    pending.remove(filmId);
+                }
+            });
+        } finally {
+            lock.unlock();
+        }
+        return exhausted;
+    }
+
+    /**
+     * Отдельная запись выделяет операцию, из-за которой падает пакет: при ошибке отбрасывается только она.
+     */
+    private void writeSeparately(long filmId, Map<Long, Boolean> changes) {
+        changes.forEach((userId, liked) -> {
+            try {
+                write(Map.of(filmId, Map.of(userId, liked)));
+            } catch (RuntimeException e) {
+                log.error("Операция с лайком отброшена после {} попыток: фильм {}, пользователь {}, лайк {}",
+                        maxRetries + 1, filmId, userId, liked, e);
+            }
+        });
+    }
+
+    private void forgetAttempts(Map<Long, Map<Long, Boolean>> batch) {
+        lock.lock();
+        try {
+            batch.forEach((filmId, changes) -> changes.keySet().forEach(userId -> forgetAttempt(filmId, userId)));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void forgetAttempt(long filmId, long userId) {
+        Map<Long, Integer> users = attempts.get(filmId);
+        if (users != null && users.remove(userId) != null && users.isEmpty()) {
+            attempts.remove(filmId);
+        }
+    }
+
+    private void run() {
+        while (running) {
+            lock.lock();
+            try {
+                if (running && size < batchSize) {
+                    batchReady.await(flushInterval.toNanos(), TimeUnit.NANOSECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+            flush();
+        }
+    }
+}
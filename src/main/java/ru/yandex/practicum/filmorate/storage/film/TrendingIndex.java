@@ -0,0 +1,335 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Индекс трендов: кольцо корзин фиксированной длительности со счетчиками лайков по фильмам.
+ * Для каждого окна из {@code filmorate.trending.windows} поддерживается рейтинг по сумме лайков окна
+ * с экспоненциальным затуханием ({@code half-life}). Лайк меняет одну корзину и рейтинги окон,
+ * корзина, вышедшая за окно, вычитается из его рейтинга, поэтому топ-K читается без обращения к БД.
+ * <p>
+ * Веса хранятся относительно опорной корзины: вес корзины {@code b} равен {@code 2^((b - landmark) / halfLife)}.
+ * Общий множитель затухания одинаков для всех фильмов и на порядок не влияет.
+ */
+@Component
+public class TrendingIndex {
+    private static final Comparator<Entry> ORDER = Comparator.comparingDouble(Entry::score).reversed()
+            .thenComparingLong(Entry::filmId);
+    /**
+     * Когда вес текущей корзины доходит до {@code 2^REBASE_EXPONENT}, опорная корзина переносится на текущую.
+     */
+    private static final double REBASE_EXPONENT = 512;
+
+    private final Clock clock;
+    private final boolean enabled;
+    private final long bucketMillis;
+    private final double halfLifeBuckets;
+    private final Map<Duration, Window> windows = new LinkedHashMap<>();
+    private final Bucket[] ring;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile long current;
+    private long landmark;
+
+    @Autowired
+    public TrendingIndex(@Value("${filmorate.trending.enabled:true}") boolean enabled,
+                         @Value("${filmorate.trending.bucket:5m}") Duration bucket,
+                         @Value("${filmorate.trending.windows:1h,24h,7d}") List<Duration> windows,
+                         @Value("${filmorate.trending.half-life:6h}") Duration halfLife) {
+        this(Clock.systemUTC(), enabled, bucket, windows, halfLife);
+    }
+
+    TrendingIndex(Clock clock, boolean enabled, Duration bucket, List<Duration> windows, Duration halfLife) {
+        this.clock = clock;
+        this.enabled = enabled;
+        this.bucketMillis = bucket.toMillis();
+        this.halfLifeBuckets = (double) halfLife.toMillis() / bucketMillis;
+        int ringSize = 1;
+        for (Duration window : windows) {
+            int buckets = (int) Math.max(1, (window.toMillis() + bucketMillis - 1) / bucketMillis);
+            this.windows.put(window, new Window(buckets));
+            ringSize = Math.max(ringSize, buckets);
+        }
+        this.ring = new Bucket[ringSize];
+        for (int i = 0; i < ringSize; i++) {
+            ring[i] = new Bucket();
+        }
+        reset(bucketOf(clock.instant()));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean supports(Duration window) {
+        return windows.containsKey(window);
+    }
+
+    /**
+     * Текущее время по часам индекса: им же помечаются лайки в БД.
+     */
+    public Instant now() {
+        return clock.instant();
+    }
+
+    public Set<Duration> getWindows() {
+        return Collections.unmodifiableSet(windows.keySet());
+    }
+
+    /**
+     * Начало самого длинного окна: лайки раньше этого момента индекс не хранит.
+     */
+    public Instant horizonStart() {
+        return Instant.ofEpochMilli((bucketOf(clock.instant()) - ring.length + 1) * bucketMillis);
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            reset(bucketOf(clock.instant()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void recordLike(long filmId) {
+        recordLike(filmId, clock.instant());
+    }
+
+    public void recordLike(long filmId, Instant likedAt) {
+        change(filmId, likedAt, 1);
+    }
+
+    /**
+     * Снимает лайк с той корзины, в которую он попал при добавлении.
+     */
+    public void recordUnlike(long filmId, Instant likedAt) {
+        change(filmId, likedAt, -1);
+    }
+
+    public void remove(long filmId) {
+        lock.writeLock().lock();
+        try {
+            for (Bucket bucket : ring) {
+                bucket.counts.remove(filmId);
+            }
+            windows.values().forEach(window -> window.remove(filmId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Long> top(Duration window, int count) {
+        Window target = window(window);
+        advance();
+        lock.readLock().lock();
+        try {
+            List<Long> ids = new ArrayList<>(Math.min(count, target.ranking.size()));
+            Iterator<Entry> iterator = target.ranking.iterator();
+            while (iterator.hasNext() && ids.size() < count) {
+                ids.add(iterator.next().filmId());
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Оценка фильма в окне на текущий момент: лайк текущей корзины весит 1, лайк на период полураспада старше — 0.5.
+     */
+    public double getScore(Duration window, long filmId) {
+        Window target = window(window);
+        advance();
+        lock.readLock().lock();
+        try {
+            Entry entry = target.entries.get(filmId);
+            return entry != null ? entry.score() / weight(current) : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Window window(Duration window) {
+        Window target = windows.get(window);
+        if (target == null) {
+            throw new IllegalArgumentException("Окно трендов не поддерживается: " + window);
+        }
+        return target;
+    }
+
+    private void change(long filmId, Instant at, int delta) {
+        lock.writeLock().lock();
+        try {
+            shift(bucketOf(clock.instant()));
+            long number = Math.min(bucketOf(at), current);
+            if (number <= current - ring.length) {
+                return;
+            }
+            Bucket bucket = ring[slot(number)];
+            if (bucket.number != number) {
+                if (delta < 0) {
+                    return;
+                }
+                bucket.reset(number);
+            }
+            int count = bucket.counts.getOrDefault(filmId, 0) + delta;
+            if (count < 0) {
+                return;
+            }
+            if (count == 0) {
+                bucket.counts.remove(filmId);
+            } else {
+                bucket.counts.put(filmId, count);
+            }
+            double weight = weight(number);
+            windows.values().forEach(window -> {
+                if (number > current - window.buckets) {
+                    window.add(filmId, delta, delta * weight);
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void advance() {
+        long now = bucketOf(clock.instant());
+        if (now <= current) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            shift(now);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Сдвигает кольцо до корзины {@code now}: корзины, вышедшие за окно, вычитаются из его рейтинга.
+     */
+    private void shift(long now) {
+        if (now <= current) {
+            return;
+        }
+        if (now - current >= ring.length) {
+            reset(now);
+            return;
+        }
+        for (long next = current + 1; next <= now; next++) {
+            for (Window window : windows.values()) {
+                Bucket expired = ring[slot(next - window.buckets)];
+                if (expired.number == next - window.buckets) {
+                    double weight = weight(expired.number);
+                    expired.counts.forEach((filmId, count) -> window.add(filmId, -count, -count * weight));
+                }
+            }
+        }
+        current = now;
+        if ((current - landmark) / halfLifeBuckets > REBASE_EXPONENT) {
+            rebase();
+        }
+    }
+
+    private void rebase() {
+        double factor = weight(current);
+        windows.values().forEach(window -> window.scale(1 / factor));
+        landmark = current;
+    }
+
+    private void reset(long now) {
+        for (Bucket bucket : ring) {
+            bucket.reset(Long.MIN_VALUE);
+        }
+        windows.values().forEach(Window::clear);
+        current = now;
+        landmark = now;
+    }
+
+    private double weight(long number) {
+        return Math.pow(2, (number - landmark) / halfLifeBuckets);
+    }
+
+    private long bucketOf(Instant instant) {
+        return Math.floorDiv(instant.toEpochMilli(), bucketMillis);
+    }
+
+    private int slot(long number) {
+        return (int) Math.floorMod(number, (long) ring.length);
+    }
+
+    private static final class Bucket {
+        private long number = Long.MIN_VALUE;
+        private final Map<Long, Integer> counts = new HashMap<>();
+
+        private void reset(long number) {
+            this.number = number;
+            counts.clear();
+        }
+    }
+
+    /**
+     * Рейтинг одного окна. Фильм без лайков в окне удаляется из рейтинга, поэтому погрешность
+     * вычитания весов не накапливается.
+     */
+    private static final class Window {
+        private final int buckets;
+        private final Map<Long, Entry> entries = new HashMap<>();
+        private final NavigableSet<Entry> ranking = new TreeSet<>(ORDER);
+
+        private Window(int buckets) {
+            this.buckets = buckets;
+        }
+
+        private void add(long filmId, int likes, double score) {
+            Entry entry = entries.remove(filmId);
+            int total = likes;
+            double totalScore = score;
+            if (entry != null) {
+                ranking.remove(entry);
+                total += entry.likes();
+                totalScore += entry.score();
+            }
+            if (total > 0) {
+                put(new Entry(filmId, total, totalScore));
+            }
+        }
+
+        private void remove(long filmId) {
+            Entry entry = entries.remove(filmId);
+            if (entry != null) {
+                ranking.remove(entry);
+            }
+        }
+
+        private void scale(double factor) {
+            List<Entry> scaled = entries.values().stream()
+                    .map(entry -> new Entry(entry.filmId(), entry.likes(), entry.score() * factor))
+                    .toList();
+            clear();
+            scaled.forEach(this::put);
+        }
+
+        private void clear() {
+            entries.clear();
+            ranking.clear();
+        }
+
+        private void put(Entry entry) {
+            entries.put(entry.filmId(), entry);
+            ranking.add(entry);
+        }
+    }
+
+    private record Entry(long filmId, int likes, double score) {
+    }
+}
@@ -0,0 +1,64 @@
+package ru.yandex.practicum.filmorate.storage.genre;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.model.Genre;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Справочник жанров в памяти: загружается при старте и перечитывается только по явному запросу {@link #reload()}.
+ */
+@Slf4j
+@Primary
+@Repository
+public class CachedGenreStorage implements GenreStorage {
+    private final GenreDbStorage genreDbStorage;
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), List.of());
+
+    public CachedGenreStorage(GenreDbStorage genreDbStorage) {
+        this.genreDbStorage = genreDbStorage;
+    }
+
+    @PostConstruct
+    public void reload() {
+        List<Genre> genres = genreDbStorage.getAll().stream()
+                .sorted(Comparator.comparingLong(Genre::getId))
+                .toList();
+        Map<Long, Genre> byId = genres.stream()
+                .collect(Collectors.toUnmodifiableMap(Genre::getId, Function.identity()));
+        snapshot = new Snapshot(byId, genres);
+        log.info("Справочник жанров загружен: {} записей", genres.size());
+    }
+
+    @Override
+    public List<Genre> getAll() {
+        return snapshot.all();
+    }
+
+    @Override
+    public Optional<Genre> getById(long id) {
+        return Optional.ofNullable(snapshot.byId().get(id));
+    }
+
+    @Override
+    public Optional<List<Genre>> getGenresByIds(Set<Long> ids) {
+        Map<Long, Genre> byId = snapshot.byId();
+        List<Genre> genres = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Genre genre = byId.get(id);
+            if (genre == null) {
+                return Optional.empty();
+            }
+            genres.add(genre);
+        }
+        return Optional.of(genres);
+    }
+
+    private record Snapshot(Map<Long, Genre> byId, List<Genre> all) {
+    }
+}
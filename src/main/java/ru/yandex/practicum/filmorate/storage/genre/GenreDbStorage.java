@@ -1,7 +1,6 @@
 package ru.yandex.practicum.filmorate.storage.genre;
 
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.annotation.Primary;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 import ru.yandex.practicum.filmorate.dal.genre.GenreResultSetExtractor;
@@ -11,7 +10,6 @@ import ru.yandex.practicum.filmorate.storage.BaseRepository;
 import java.util.*;
 import java.util.stream.Collectors;
 
-@Primary
 @Slf4j
 @Repository
 public class GenreDbStorage extends BaseRepository<Genre> implements GenreStorage {
@@ -0,0 +1,53 @@
+package ru.yandex.practicum.filmorate.storage.mpa;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.model.Mpa;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Справочник рейтингов MPA в памяти: загружается при старте и перечитывается только по явному запросу {@link #reload()}.
+ */
+@Slf4j
+@Primary
+@Repository
+public class CachedMpaStorage implements MpaStorage {
+    private final MpaDbStorage mpaDbStorage;
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), List.of());
+
+    public CachedMpaStorage(MpaDbStorage mpaDbStorage) {
+        this.mpaDbStorage = mpaDbStorage;
+    }
+
+    @PostConstruct
+    public void reload() {
+        List<Mpa> ratings = mpaDbStorage.getAll().stream()
+                .sorted(Comparator.comparingLong(Mpa::getId))
+                .toList();
+        Map<Long, Mpa> byId = ratings.stream()
+                .collect(Collectors.toUnmodifiableMap(Mpa::getId, Function.identity()));
+        snapshot = new Snapshot(byId, ratings);
+        log.info("Справочник MPA загружен: {} записей", ratings.size());
+    }
+
+    @Override
+    public List<Mpa> getAll() {
+        return snapshot.all();
+    }
+
+    @Override
+    public Optional<Mpa> getById(long id) {
+        return Optional.ofNullable(snapshot.byId().get(id));
+    }
+
+    private record Snapshot(Map<Long, Mpa> byId, List<Mpa> all) {
+    }
+}
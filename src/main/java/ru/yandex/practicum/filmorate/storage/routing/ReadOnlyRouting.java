@@ -0,0 +1,24 @@
+package ru.yandex.practicum.filmorate.storage.routing;
+
+/**
+ * Признак того, что текущий поток обрабатывает запрос только на чтение.
+ * Выставляется фильтром на время HTTP-запроса и читается {@link ReadWriteRoutingDataSource}.
+ */
+public final class ReadOnlyRouting {
+    private static final ThreadLocal<Boolean> READ_ONLY = new ThreadLocal<>();
+
+    private ReadOnlyRouting() {
+    }
+
+    public static void markReadOnly() {
+        READ_ONLY.set(Boolean.TRUE);
+    }
+
+    public static void clear() {
+        READ_ONLY.remove();
+    }
+
+    public static boolean isReadOnly() {
+        return Boolean.TRUE.equals(READ_ONLY.get());
+    }
+}
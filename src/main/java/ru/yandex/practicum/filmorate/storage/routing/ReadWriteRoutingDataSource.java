@@ -0,0 +1,33 @@
+package ru.yandex.practicum.filmorate.storage.routing;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Выдает соединения из отдельного пула только для чтения, если запрос помечен {@link ReadOnlyRouting}
+ * и нет активной пишущей транзакции. Все остальное (миграции, фоновые задачи, запись) идет в основной пул.
+ * Признаки транзакции видны только при ленивом получении соединения, поэтому маршрутизатор используется
+ * за {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public ReadWriteRoutingDataSource(DataSource readWrite, DataSource readOnly) {
+        setTargetDataSources(Map.of(Route.READ_WRITE, readWrite, Route.READ_ONLY, readOnly));
+        setDefaultTargetDataSource(readWrite);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean writeTransaction = TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        return ReadOnlyRouting.isReadOnly() && !writeTransaction ? Route.READ_ONLY : Route.READ_WRITE;
+    }
+
+    public enum Route {
+        READ_WRITE,
+        READ_ONLY
+    }
+}
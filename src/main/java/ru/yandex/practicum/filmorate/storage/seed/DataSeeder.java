@@ -0,0 +1,235 @@
+package ru.yandex.practicum.filmorate.storage.seed;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Массовое заполнение БД синтетическими пользователями, фильмами, лайками и дружбой пакетными вставками.
+ * Данные дописываются после уже существующих ID; справочники жанров и MPA должны быть заполнены.
+ * Популярность фильмов и число друзей следуют степенному распределению, как в реальных социальных графах.
+ */
+@Slf4j
+public class DataSeeder {
+    private static final int BATCH_SIZE = 10_000;
+    private static final LocalDate MIN_RELEASE_DATE = LocalDate.of(1950, 1, 1);
+    private static final LocalDate MIN_BIRTHDAY = LocalDate.of(1950, 1, 1);
+
+    private static final String INSERT_USER = "INSERT INTO users (id, email, login, name, birthday) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_FILM = """
+            INSERT INTO films (id, name, description, release_date, duration, mpa_id, likes_count)
+            VALUES (?, ?, ?, ?, ?, ?, ?)""";
+    private static final String INSERT_FILM_GENRE = "INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)";
+    private static final String INSERT_LIKE = "INSERT INTO film_likes (film_id, user_id) VALUES (?, ?)";
+    private static final String INSERT_FRIEND = "INSERT INTO friends (user_id, friend_id, status) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbc;
+
+    public DataSeeder(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public SeedResult seed(SeedSpec spec) {
+        long started = System.nanoTime();
+        Random random = new Random(spec.seed());
+        long userBase = maxId("users");
+        long filmBase = maxId("films");
+        List<Long> mpaIds = jdbc.queryForList("SELECT id FROM mpa ORDER BY id", Long.class);
+        List<Long> genreIds = jdbc.queryForList("SELECT id FROM genres ORDER BY id", Long.class);
+        if (mpaIds.isEmpty()) {
+            throw new IllegalStateException("Справочник MPA пуст");
+        }
+
+        insertUsers(userBase, spec.users(), random);
+        int[] likesPerFilm = distributeLikes(spec.likes(), spec.films(), spec.users(), spec.exponent(), random);
+        insertFilms(filmBase, likesPerFilm, mpaIds, genreIds, random);
+        long likes = insertLikes(filmBase, userBase, likesPerFilm, spec.users(), random);
+        long friends = insertFriends(userBase, spec, random);
+
+        jdbc.execute("ALTER TABLE users ALTER COLUMN id RESTART WITH " + (userBase + spec.users() + 1));
+        jdbc.execute("ALTER TABLE films ALTER COLUMN id RESTART WITH " + (filmBase + spec.films() + 1));
+
+        SeedResult result = new SeedResult(spec.users(), spec.films(), likes, friends,
+                Duration.ofNanos(System.nanoTime() - started));
+        log.info("Сгенерированы данные: {}", result);
+        return result;
+    }
+
+    private void insertUsers(long base, int count, Random random) {
+        Batch batch = new Batch(INSERT_USER);
+        for (long i = 1; i <= count; i++) {
+            long id = base + i;
+            batch.add(id, "seed" + id + "@filmorate.ru", "seed" + id, "Seed user " + id,
+                    Date.valueOf(MIN_BIRTHDAY.plusDays(random.nextInt(365 * 50))));
+        }
+        batch.flush();
+    }
+
+    private void insertFilms(long base, int[] likesPerFilm, List<Long> mpaIds, List<Long> genreIds, Random random) {
+        Batch films = new Batch(INSERT_FILM);
+        Batch genres = new Batch(INSERT_FILM_GENRE);
+        for (int i = 0; i < likesPerFilm.length; i++) {
+            long id = base + i + 1;
+            films.add(id, "Seed film " + id, "Synthetic film " + id,
+                    Date.valueOf(MIN_RELEASE_DATE.plusDays(random.nextInt(365 * 70))),
+                    60 + random.nextInt(120), mpaIds.get(random.nextInt(mpaIds.size())), likesPerFilm[i]);
+            if (!genreIds.isEmpty()) {
+                int first = random.nextInt(genreIds.size());
+                genres.add(id, genreIds.get(first));
+                int second = random.nextInt(genreIds.size());
+                if (second != first && random.nextBoolean()) {
+                    genres.add(id, genreIds.get(second));
+                }
+            }
+        }
+        films.flush();
+        genres.flush();
+    }
+
+    private long insertLikes(long filmBase, long userBase, int[] likesPerFilm, int users, Random random) {
+        Batch batch = new Batch(INSERT_LIKE);
+        long total = 0;
+        for (int i = 0; i < likesPerFilm.length; i++) {
+            long filmId = filmBase + i + 1;
+            DistinctSequence likers = new DistinctSequence(users, random);
+            for (int j = 0; j < likesPerFilm[i]; j++) {
+                batch.add(filmId, userBase + likers.next() + 1);
+            }
+            total += likesPerFilm[i];
+        }
+        batch.flush();
+        return total;
+    }
+
+    private long insertFriends(long userBase, SeedSpec spec, Random random) {
+        Batch batch = new Batch(INSERT_FRIEND);
+        double alpha = 1 + spec.exponent();
+        double scale = spec.friendsPerUser() * (alpha - 1) / alpha;
+        long total = 0;
+        for (int user = 0; user < spec.users(); user++) {
+            double pareto = Math.pow(1 - random.nextDouble(), -1 / alpha);
+            int degree = (int) Math.min(spec.users() - 1, Math.round(scale * pareto));
+            DistinctSequence friends = new DistinctSequence(spec.users(), random);
+            for (int j = 0; j < degree; j++) {
+                int friend = friends.next();
+                if (friend == user) {
+                    friend = friends.next();
+                }
+                batch.add(userBase + user + 1, userBase + friend + 1, random.nextBoolean());
+            }
+            total += degree;
+        }
+        batch.flush();
+        return total;
+    }
+
+    /**
+     * Распределяет лайки по фильмам по закону Ципфа. Фильму не может достаться больше лайков, чем пользователей,
+     * излишек перераспределяется между остальными. Ранги перемешиваются, чтобы популярность не зависела от ID.
+     */
+    static int[] distributeLikes(long likes, int films, int users, double exponent, Random random) {
+        double[] weights = new double[films];
+        for (int rank = 0; rank < films; rank++) {
+            weights[rank] = 1 / Math.pow(rank + 1, exponent);
+        }
+        int[] counts = new int[films];
+        long remaining = Math.min(likes, (long) films * users);
+        while (remaining > 0) {
+            double openWeight = 0;
+            for (int rank = 0; rank < films; rank++) {
+                if (counts[rank] < users) {
+                    openWeight += weights[rank];
+                }
+            }
+            long assigned = 0;
+            for (int rank = 0; rank < films && assigned < remaining; rank++) {
+                if (counts[rank] < users) {
+                    long share = (long) Math.floor(remaining * weights[rank] / openWeight);
+                    int updated = (int) Math.min(users, counts[rank] + Math.min(share, remaining - assigned));
+                    assigned += updated - counts[rank];
+                    counts[rank] = updated;
+                }
+            }
+            if (assigned == 0) {
+                for (int rank = 0; rank < films && assigned < remaining; rank++) {
+                    if (counts[rank] < users) {
+                        counts[rank]++;
+                        assigned++;
+                    }
+                }
+            }
+            remaining -= assigned;
+        }
+        for (int i = films - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = counts[i];
+            counts[i] = counts[j];
+            counts[j] = swap;
+        }
+        return counts;
+    }
+
+    private long maxId(String table) {
+        Long max = jdbc.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        return max != null ? max : 0;
+    }
+
+    /**
+     * Неповторяющиеся индексы из {@code [0, size)}: обход по модулю с шагом, взаимно простым с размером,
+     * не требует памяти под уже выданные значения.
+     */
+    private static final class DistinctSequence {
+        private final long size;
+        private final long step;
+        private long current;
+
+        DistinctSequence(int size, Random random) {
+            this.size = size;
+            this.current = random.nextInt(size);
+            long candidate = size == 1 ? 1 : 1 + random.nextInt(size - 1);
+            while (gcd(candidate, size) != 1) {
+                candidate = candidate % (size - 1) + 1;
+            }
+            this.step = candidate;
+        }
+
+        int next() {
+            int value = (int) current;
+            current = (current + step) % size;
+            return value;
+        }
+
+        private static long gcd(long a, long b) {
+            return b == 0 ? a : gcd(b, a % b);
+        }
+    }
+
+    private final class Batch {
+        private final String query;
+        private final List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+
+        Batch(String query) {
+            this.query = query;
+        }
+
+        void add(Object... row) {
+            rows.add(row);
+            if (rows.size() >= BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (!rows.isEmpty()) {
+                jdbc.batchUpdate(query, rows);
+                rows.clear();
+            }
+        }
+    }
+}
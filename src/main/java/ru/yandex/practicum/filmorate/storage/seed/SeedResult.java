@@ -0,0 +1,6 @@
+package ru.yandex.practicum.filmorate.storage.seed;
+
+import java.time.Duration;
+
+public record SeedResult(int users, int films, long likes, long friends, Duration elapsed) {
+}
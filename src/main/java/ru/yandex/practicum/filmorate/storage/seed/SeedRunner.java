@@ -0,0 +1,44 @@
+package ru.yandex.practicum.filmorate.storage.seed;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Заполняет БД синтетическими данными и завершает приложение.
+ * Запуск: {@code java -jar filmorate.jar --spring.profiles.active=seed --filmorate.seed.users=100000}.
+ */
+@Slf4j
+@Component
+@Profile("seed")
+public class SeedRunner implements ApplicationRunner {
+    private final JdbcTemplate jdbc;
+    private final ConfigurableApplicationContext context;
+    private final SeedSpec spec;
+
+    public SeedRunner(JdbcTemplate jdbc,
+                      ConfigurableApplicationContext context,
+                      @Value("${filmorate.seed.users:10000}") int users,
+                      @Value("${filmorate.seed.films:1000}") int films,
+                      @Value("${filmorate.seed.likes:100000}") long likes,
+                      @Value("${filmorate.seed.friends-per-user:20}") int friendsPerUser,
+                      @Value("${filmorate.seed.exponent:1.0}") double exponent,
+                      @Value("${filmorate.seed.seed:42}") long seed) {
+        this.jdbc = jdbc;
+        this.context = context;
+        this.spec = new SeedSpec(users, films, likes, friendsPerUser, exponent, seed);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        log.info("Генерация данных: {}", spec);
+        new DataSeeder(jdbc).seed(spec);
+        System.exit(SpringApplication.exit(context, () -> 0));
+    }
+}
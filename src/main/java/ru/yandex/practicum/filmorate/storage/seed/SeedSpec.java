@@ -0,0 +1,17 @@
+package ru.yandex.practicum.filmorate.storage.seed;
+
+/**
+ * Параметры генерации данных.
+ *
+ * @param friendsPerUser среднее число друзей на пользователя
+ * @param exponent       показатель степенного распределения: лайки по фильмам распределены по Ципфу с этим
+ *                       показателем, число друзей - по Парето с показателем {@code 1 + exponent}
+ * @param seed           зерно генератора; одинаковые параметры дают одинаковые данные
+ */
+public record SeedSpec(int users, int films, long likes, int friendsPerUser, double exponent, long seed) {
+    public SeedSpec {
+        if (users <= 0 || films <= 0 || likes < 0 || friendsPerUser < 0 || exponent <= 0) {
+            throw new IllegalArgumentException("Некорректные параметры генерации данных");
+        }
+    }
+}
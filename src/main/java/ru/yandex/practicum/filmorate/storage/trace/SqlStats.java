@@ -0,0 +1,44 @@
+package ru.yandex.practicum.filmorate.storage.trace;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Счетчики SQL в рамках одного HTTP-запроса. Заполняются {@link TracingDataSource} в потоке запроса.
+ */
+@Getter
+public class SqlStats {
+    private static final ThreadLocal<SqlStats> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private long rows;
+    private long nanos;
+
+    public static SqlStats begin() {
+        SqlStats stats = new SqlStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static SqlStats current() {
+        return CURRENT.get();
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    public Duration getElapsed() {
+        return Duration.ofNanos(nanos);
+    }
+
+    void recordStatement(long elapsedNanos) {
+        statements++;
+        nanos += elapsedNanos;
+    }
+
+    void recordRow() {
+        rows++;
+    }
+}
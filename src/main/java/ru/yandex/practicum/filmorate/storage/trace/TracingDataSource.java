@@ -0,0 +1,138 @@
+package ru.yandex.practicum.filmorate.storage.trace;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Обертка над {@link DataSource}, которая считает выполненные запросы, прочитанные строки и время в БД
+ * для текущего {@link SqlStats}, а запросы дольше порога пишет в лог вместе с параметрами.
+ */
+@Slf4j
+public class TracingDataSource extends DelegatingDataSource {
+    private final long slowThresholdNanos;
+
+    public TracingDataSource(DataSource target, Duration slowThreshold) {
+        super(target);
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return proxy(Connection.class, new ConnectionHandler(super.getConnection()));
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return proxy(Connection.class, new ConnectionHandler(super.getConnection(username, password)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(TracingDataSource.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        private ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = TracingDataSource.invoke(target, method, args);
+            return switch (method.getName()) {
+                case "prepareStatement" -> proxy(PreparedStatement.class,
+                        new StatementHandler((Statement) result, (String) args[0]));
+                case "prepareCall" -> proxy(CallableStatement.class,
+                        new StatementHandler((Statement) result, (String) args[0]));
+                case "createStatement" -> proxy(Statement.class, new StatementHandler((Statement) result, null));
+                default -> result;
+            };
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String sql;
+        private final List<Object> binds = new ArrayList<>();
+
+        private StatementHandler(Statement target, String sql) {
+            this.target = target;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                return execute(method, args);
+            }
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                bind(index, name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                binds.clear();
+            }
+            Object result = TracingDataSource.invoke(target, method, args);
+            return name.equals("getResultSet") && result != null ? countingResultSet((ResultSet) result) : result;
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            long started = System.nanoTime();
+            try {
+                Object result = TracingDataSource.invoke(target, method, args);
+                return result instanceof ResultSet rs ? countingResultSet(rs) : result;
+            } finally {
+                long elapsed = System.nanoTime() - started;
+                SqlStats stats = SqlStats.current();
+                if (stats != null) {
+                    stats.recordStatement(elapsed);
+                }
+                if (elapsed >= slowThresholdNanos) {
+                    String query = sql != null ? sql : args != null && args.length > 0 ? String.valueOf(args[0]) : "?";
+                    log.warn("Медленный запрос ({} мс): {} параметры: {}", elapsed / 1_000_000,
+                            query.replaceAll("\\s+", " ").trim(), binds);
+                }
+            }
+        }
+
+        private void bind(int index, Object value) {
+            while (binds.size() < index) {
+                binds.add(null);
+            }
+            binds.set(index - 1, value instanceof byte[] bytes ? "byte[" + bytes.length + "]" : value);
+        }
+
+        private ResultSet countingResultSet(ResultSet rs) {
+            SqlStats stats = SqlStats.current();
+            if (stats == null) {
+                return rs;
+            }
+            return proxy(ResultSet.class, (proxy, method, args) -> {
+                Object result = TracingDataSource.invoke(rs, method, args);
+                if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                    stats.recordRow();
+                }
+                return result;
+            });
+        }
+    }
+}
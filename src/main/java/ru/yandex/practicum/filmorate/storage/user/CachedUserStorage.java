@@ -0,0 +1,178 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.dto.UserFriendDto;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.CachedFilmStorage;
+import ru.yandex.practicum.filmorate.storage.cache.BoundedCache;
+import ru.yandex.practicum.filmorate.storage.cache.CacheStats;
+import ru.yandex.practicum.filmorate.utils.LongBooleanMap;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Кэширует пользователей по ID поверх {@link UserDbStorage}. Запись сбрасывается при изменении пользователя
+ * или его списка друзей.
+ * Дополнительно может хранить соответствие email -> ID; при попадании email пользователя перепроверяется,
+ * поэтому устаревшая запись после смены email приводит лишь к обращению в БД.
+ * В кэше лежат копии, и наружу отдаются копии.
+ */
+@Primary
+@Repository
+public class CachedUserStorage implements UserStorage {
+    private final UserDbStorage userDbStorage;
+    private final CachedFilmStorage filmStorage;
+    private final BoundedCache<Long, User> cache;
+    private final BoundedCache<String, Long> emailIndex;
+
+    public CachedUserStorage(UserDbStorage userDbStorage,
+                             CachedFilmStorage filmStorage,
+                             @Value("${filmorate.cache.users.max-size:10000}") int maxSize,
+                             @Value("${filmorate.cache.users.ttl:5m}") Duration ttl,
+                             @Value("${filmorate.cache.users.email-index.enabled:true}") boolean emailIndexEnabled) {
+        this.userDbStorage = userDbStorage;
+        this.filmStorage = filmStorage;
+        this.cache = new BoundedCache<>(maxSize, ttl);
+        this.emailIndex = emailIndexEnabled ? new BoundedCache<>(maxSize, ttl) : null;
+    }
+
+    @Override
+    public User create(User user) {
+        return userDbStorage.create(user);
+    }
+
+    @Override
+    public User update(User user) {
+        try {
+            return userDbStorage.update(user);
+        } finally {
+            cache.invalidate(user.getId());
+        }
+    }
+
+    @Override
+    public Optional<User> getUserById(long id) {
+        Optional<User> cached = cache.get(id);
+        if (cached.isPresent()) {
+            return cached.map(CachedUserStorage::copy);
+        }
+        long stamp = cache.stamp();
+        Optional<User> user = userDbStorage.getUserById(id);
+        user.ifPresent(u -> cache.put(id, copy(u), stamp));
+        return user;
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        if (emailIndex != null) {
+            Optional<User> cached = emailIndex.get(email)
+                    .flatMap(this::getUserById)
+                    .filter(user -> email.equals(user.getEmail()));
+            if (cached.isPresent()) {
+                return cached;
+            }
+            emailIndex.invalidate(email);
+        }
+        long stamp = cache.stamp();
+        long emailStamp = emailIndex != null ? emailIndex.stamp() : 0;
+        Optional<User> user = userDbStorage.findByEmail(email);
+        user.ifPresent(u -> {
+            cache.put(u.getId(), copy(u), stamp);
+            if (emailIndex != null) {
+                emailIndex.put(email, u.getId(), emailStamp);
+            }
+        });
+        return user;
+    }
+
+    @Override
+    public Collection<User> getAll() {
+        return userDbStorage.getAll();
+    }
+
+    @Override
+    public Collection<User> getPage(long afterId, int limit) {
+        return userDbStorage.getPage(afterId, limit);
+    }
+
+    @Override
+    public void streamAll(Consumer<User> consumer) {
+        userDbStorage.streamAll(consumer);
+    }
+
+    @Override
+    public boolean exists(long id) {
+        return userDbStorage.exists(id);
+    }
+
+    @Override
+    public Set<Long> getExistingIds(Collection<Long> ids) {
+        return userDbStorage.getExistingIds(ids);
+    }
+
+    @Override
+    public void delete(long id) {
+        try {
+            userDbStorage.delete(id);
+        } finally {
+            cache.invalidate(id);
+            cache.invalidateIf(user -> user.getFriends().containsKey(id));
+            if (emailIndex != null) {
+                emailIndex.invalidateIf(userId -> userId == id);
+            }
+            filmStorage.evictLikesOf(id);
+        }
+    }
+
+    @Override
+    public boolean addFriend(long userId, long friendId) {
+        try {
+            return userDbStorage.addFriend(userId, friendId);
+        } finally {
+            cache.invalidate(userId);
+        }
+    }
+
+    @Override
+    public void confirmFriend(long userId, long friendId) {
+        try {
+            userDbStorage.confirmFriend(userId, friendId);
+        } finally {
+            cache.invalidate(userId);
+        }
+    }
+
+    @Override
+    public boolean deleteFriend(long userId, long friendId) {
+        try {
+            return userDbStorage.deleteFriend(userId, friendId);
+        } finally {
+            cache.invalidate(userId);
+        }
+    }
+
+    @Override
+    public Collection<UserFriendDto> getFriends(long userId) {
+        return userDbStorage.getFriends(userId);
+    }
+
+    @Override
+    public Collection<UserFriendDto> getCommonFriends(long userId, long otherUserId) {
+        return userDbStorage.getCommonFriends(userId, otherUserId);
+    }
+
+    public CacheStats getCacheStats() {
+        return cache.stats();
+    }
+
+    private static User copy(User user) {
+        return new User(user.getId(), user.getEmail(), user.getLogin(), user.getName(), user.getBirthday(),
+                LongBooleanMap.copyOf(user.getFriends()));
+    }
+}
@@ -0,0 +1,104 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.utils.SortedLongArrays;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Граф дружбы в памяти: для каждого пользователя отсортированный массив ID друзей.
+ * Поддерживается инкрементально при добавлении/удалении друзей, поэтому списки друзей
+ * и общие друзья вычисляются без обращения к таблице friends.
+ */
+@Component
+public class FriendGraph {
+    private final Map<Long, long[]> adjacency = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void load(Map<Long, long[]> friendsByUser) {
+        lock.writeLock().lock();
+        try {
+            adjacency.clear();
+            friendsByUser.forEach((userId, friends) -> adjacency.put(userId, SortedLongArrays.of(friends)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void addFriend(long userId, long friendId) {
+        lock.writeLock().lock();
+        try {
+            long[] friends = adjacency.getOrDefault(userId, SortedLongArrays.EMPTY);
+            adjacency.put(userId, SortedLongArrays.insert(friends, friendId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeFriend(long userId, long friendId) {
+        lock.writeLock().lock();
+        try {
+            long[] friends = adjacency.get(userId);
+            if (friends == null) {
+                return;
+            }
+            long[] updated = SortedLongArrays.remove(friends, friendId);
+            if (updated.length == 0) {
+                adjacency.remove(userId);
+            } else {
+                adjacency.put(userId, updated);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Удаляет пользователя вместе со всеми ребрами, ведущими к нему.
+     */
+    public void removeUser(long userId) {
+        lock.writeLock().lock();
+        try {
+            adjacency.remove(userId);
+            List<Long> emptied = new ArrayList<>();
+            adjacency.replaceAll((id, friends) -> {
+                long[] updated = SortedLongArrays.remove(friends, userId);
+                if (updated.length == 0) {
+                    emptied.add(id);
+                }
+                return updated;
+            });
+            emptied.forEach(adjacency::remove);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return отсортированные ID друзей; массив нельзя изменять
+     */
+    public long[] getFriends(long userId) {
+        lock.readLock().lock();
+        try {
+            return adjacency.getOrDefault(userId, SortedLongArrays.EMPTY);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long[] getCommonFriends(long userId, long otherUserId) {
+        lock.readLock().lock();
+        try {
+            return SortedLongArrays.intersect(
+                    adjacency.getOrDefault(userId, SortedLongArrays.EMPTY),
+                    adjacency.getOrDefault(otherUserId, SortedLongArrays.EMPTY));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -1,23 +1,27 @@
 package ru.yandex.practicum.filmorate.storage.user;
 
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.annotation.Primary;
-import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.dal.user.UserFriendDtoRowMapper;
 import ru.yandex.practicum.filmorate.dal.user.UserResultSetExtractor;
 import ru.yandex.practicum.filmorate.dto.UserFriendDto;
 import ru.yandex.practicum.filmorate.exception.AlreadyExistsException;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.storage.BaseRepository;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 @Slf4j
-@Primary
 @Repository
 public class UserDbStorage extends BaseRepository<User> implements UserStorage {
+    private static final UserFriendDtoRowMapper FRIEND_DTO_MAPPER = new UserFriendDtoRowMapper();
 
     private static final String USER_COLUMNS = """
             SELECT
@@ -31,47 +35,72 @@ public class UserDbStorage extends BaseRepository<User> implements UserStorage {
             """;
     private static final String USER_JOIN = "LEFT JOIN friends f ON u.id = f.user_id";
     private static final String BASE_SELECT = USER_COLUMNS + " FROM users u " + USER_JOIN;
-    private static final String FIND_ALL = BASE_SELECT;
-    private static final String FIND_BY_ID = BASE_SELECT + " WHERE u.id = ?";
+    /**
+     * Запросы с друзьями упорядочены по friend_id: LongBooleanMap заполняется дописыванием в конец, без сдвигов массива.
+     */
+    private static final String FIND_ALL = BASE_SELECT + " ORDER BY u.id, f.friend_id";
+    private static final String FIND_BY_ID = BASE_SELECT + " WHERE u.id = ? ORDER BY f.friend_id";
+    private static final String EXISTS_BY_ID = "SELECT 1 FROM users WHERE id = ?";
+    private static final String FIND_EXISTING_IDS = "SELECT id FROM users WHERE id IN (%s)";
+    private static final String FIND_PAGE = BASE_SELECT
+            + " WHERE u.id IN (SELECT id FROM users WHERE id > ? ORDER BY id LIMIT ?) ORDER BY u.id, f.friend_id";
     private static final String INSERT = "INSERT INTO users (email, login, name, birthday) VALUES (?, ?, ?, ?)";
     private static final String UPDATE = "UPDATE users SET email = ?, login = ?, name = ?, birthday = ? WHERE id = ?";
     private static final String DELETE_USER = "DELETE FROM users WHERE id = ?";
-    private static final String INSERT_FRIEND = "INSERT INTO friends (user_id, friend_id, status) VALUES (?, ?, ?)";
+    private static final String MERGE_FRIEND = """
+            MERGE INTO friends t
+            USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT))) AS s (user_id, friend_id)
+                ON t.user_id = s.user_id AND t.friend_id = s.friend_id
+            WHEN NOT MATCHED THEN
+                INSERT (user_id, friend_id, status) VALUES (s.user_id, s.friend_id, FALSE)""";
     private static final String UPDATE_FRIEND_STATUS = "UPDATE friends SET status = ? WHERE user_id = ? AND friend_id = ?";
     private static final String DELETE_FRIEND = "DELETE FROM friends WHERE user_id = ? AND friend_id = ?";
 
-    private static final String FIND_BY_EMAIL = "SELECT * FROM users WHERE email = ?";
-    private static final String FIND_COMMON_FRIENDS = """
-            SELECT
-                u.id AS user_id,
-                u.email AS user_email,
-                u.login AS user_login,
-                u.name AS user_name,
-                u.birthday AS user_birthday
-            FROM users u
-                INNER JOIN friends f1 ON u.id = f1.friend_id
-                INNER JOIN friends f2 ON u.id = f2.friend_id
+    private static final String FIND_BY_EMAIL = BASE_SELECT + " WHERE u.email = ? ORDER BY f.friend_id";
+    private static final String EXISTS_BY_EMAIL = "SELECT 1 FROM users WHERE email = ?";
+    private static final String EXISTS_BY_EMAIL_FOR_OTHER = "SELECT 1 FROM users WHERE email = ? AND id <> ?";
+    private static final String FIND_FRIEND_IDS = "SELECT friend_id FROM friends WHERE user_id = ? ORDER BY friend_id";
+    private static final String FIND_COMMON_FRIEND_IDS = """
+            SELECT f1.friend_id
+            FROM friends f1
+                JOIN friends f2 ON f1.friend_id = f2.friend_id
             WHERE f1.user_id = ? AND f2.user_id = ?
+            ORDER BY f1.friend_id
             """;
-    private static final String FIND_FRIENDS = """
-            SELECT
-            u2.id AS friend_id,
-            u2.email AS friend_email,
-            u2.login AS friend_login,
-            u2.name AS friend_name,
-            u2.birthday AS friend_birthday
-                    FROM
-            users u1
-            JOIN
-            friends f ON u1.id = f.user_id
-                    JOIN
-            users u2 ON f.friend_id = u2.id
-                    WHERE
-            u1.id = ?
-            """;
+    private static final String FIND_ALL_FRIENDS = "SELECT user_id, friend_id FROM friends";
+    private static final String FIND_FRIEND_DTOS = "SELECT id, email, login, name FROM users WHERE id IN (%s)";
 
-    public UserDbStorage(JdbcTemplate jdbc, UserResultSetExtractor extractor) {
+    private final UserResultSetExtractor userExtractor;
+    private final FriendGraph friendGraph;
+    private final boolean friendGraphEnabled;
+    private final int streamFetchSize;
+
+    public UserDbStorage(JdbcTemplate jdbc,
+                         UserResultSetExtractor extractor,
+                         FriendGraph friendGraph,
+                         @Value("${filmorate.friend-graph.enabled:true}") boolean friendGraphEnabled,
+                         @Value("${filmorate.export.fetch-size:500}") int streamFetchSize) {
         super(jdbc, extractor);
+        this.userExtractor = extractor;
+        this.friendGraph = friendGraph;
+        this.friendGraphEnabled = friendGraphEnabled;
+        this.streamFetchSize = streamFetchSize;
+    }
+
+    @PostConstruct
+    public void loadFriendGraph() {
+        if (!friendGraphEnabled) {
+            return;
+        }
+        Map<Long, List<Long>> friendsByUser = new HashMap<>();
+        jdbc.query(FIND_ALL_FRIENDS, rs -> {
+            friendsByUser.computeIfAbsent(rs.getLong("user_id"), id -> new ArrayList<>()).add(rs.getLong("friend_id"));
+        });
+        Map<Long, long[]> adjacency = new HashMap<>();
+        friendsByUser.forEach((userId, friends) ->
+                adjacency.put(userId, friends.stream().mapToLong(Long::longValue).toArray()));
+        friendGraph.load(adjacency);
+        log.info("Граф дружбы загружен: {} пользователей", adjacency.size());
     }
 
     @Override
@@ -89,20 +118,14 @@ public class UserDbStorage extends BaseRepository<User> implements UserStorage {
     }
 
     public boolean existsEmail(String email) {
-        try {
-            User user = jdbc.queryForObject(
-                    FIND_BY_EMAIL,
-                    (rs, rowNum) -> User.builder().email(rs.getString("email")).build(),
-                    email
-            );
-            return user != null;
-        } catch (EmptyResultDataAccessException e) {
-            return false;
-        }
+        return exists(EXISTS_BY_EMAIL, email);
     }
 
     @Override
     public User update(User user) {
+        if (exists(EXISTS_BY_EMAIL_FOR_OTHER, user.getEmail(), user.getId())) {
+            throw new AlreadyExistsException("Пользователь с email " + user.getEmail() + " уже существует");
+        }
         update(UPDATE, user.getEmail(), user.getLogin(), user.getName(), user.getBirthday(), user.getId());
         log.info("Обновлен пользователь: {}", user);
         return user;
@@ -113,19 +136,64 @@ public class UserDbStorage extends BaseRepository<User> implements UserStorage {
         return findOne(FIND_BY_ID, id);
     }
 
+    @Override
+    public Optional<User> findByEmail(String email) {
+        return findOne(FIND_BY_EMAIL, email);
+    }
+
     @Override
     public Collection<User> getAll() {
         return findMany(FIND_ALL);
     }
 
+    @Override
+    public Collection<User> getPage(long afterId, int limit) {
+        return findMany(FIND_PAGE, afterId, limit);
+    }
+
+    @Override
+    public void streamAll(Consumer<User> consumer) {
+        jdbc.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(FIND_ALL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(streamFetchSize);
+            return statement;
+        }, (ResultSetExtractor<Void>) rs -> {
+            userExtractor.extractOrdered(rs, consumer);
+            return null;
+        });
+    }
+
+    @Override
+    public boolean exists(long id) {
+        return exists(EXISTS_BY_ID, id);
+    }
+
+    @Override
+    public Set<Long> getExistingIds(Collection<Long> ids) {
+        return findExistingIds(FIND_EXISTING_IDS, ids);
+    }
+
     @Override
     public void delete(long id) {
         update(DELETE_USER, id);
+        if (friendGraphEnabled) {
+            friendGraph.removeUser(id);
+        }
     }
 
+    /**
+     * Идемпотентно добавляет заявку в друзья.
+     *
+     * @return {@code true}, если заявки еще не было
+     */
     @Override
-    public void addFriend(long userId, long friendId) {
-        update(INSERT_FRIEND, userId, friendId, false);
+    public boolean addFriend(long userId, long friendId) {
+        boolean added = execute(MERGE_FRIEND, userId, friendId) > 0;
+        if (added && friendGraphEnabled) {
+            friendGraph.addFriend(userId, friendId);
+        }
+        return added;
     }
 
     @Override
@@ -133,40 +201,64 @@ public class UserDbStorage extends BaseRepository<User> implements UserStorage {
         update(UPDATE_FRIEND_STATUS, true, userId, friendId);
     }
 
-    public boolean checkRelationship(long userId, long friendId) {
-        String query = "SELECT 1 FROM friends WHERE user_id = ? OR friend_id = ? LIMIT 1";
-        List<Map<String, Object>> result = jdbc.queryForList(query, userId, friendId);
-        return !result.isEmpty();
-    }
-
+    /**
+     * Идемпотентно удаляет друга.
+     *
+     * @return {@code true}, если связь была удалена
+     */
     @Override
-    public void deleteFriend(long userId, long friendId) {
-        update(DELETE_FRIEND, userId, friendId);
+    public boolean deleteFriend(long userId, long friendId) {
+        boolean deleted = delete(DELETE_FRIEND, userId, friendId);
+        if (deleted && friendGraphEnabled) {
+            friendGraph.removeFriend(userId, friendId);
+        }
+        return deleted;
     }
 
     @Override
     public Collection<UserFriendDto> getFriends(long userId) {
-        List<Map<String, Object>> maps = jdbc.queryForList(FIND_FRIENDS, userId);
-
-        return maps.stream().map(map -> UserFriendDto.builder()
-                .id((Long) map.get("friend_id"))
-                .email((String) map.get("friend_email"))
-                .login((String) map.get("friend_login"))
-                .name((String) map.get("friend_name"))
-                .build()
-        ).collect(Collectors.toCollection(ArrayList::new));
+        long[] friendIds = friendGraphEnabled
+                ? friendGraph.getFriends(userId)
+                : measure(FIND_FRIEND_IDS, () -> jdbc.queryForList(FIND_FRIEND_IDS, Long.class, userId)).stream()
+                .mapToLong(Long::longValue).toArray();
+        return findFriendDtos(friendIds);
     }
 
     @Override
     public Collection<UserFriendDto> getCommonFriends(long userId, long otherUserId) {
-        List<Map<String, Object>> maps = jdbc.queryForList(FIND_COMMON_FRIENDS, userId, otherUserId);
-
-        return maps.stream().map(map -> UserFriendDto.builder()
-                .id((Long) map.get("user_id"))
-                .email((String) map.get("user_email"))
-                .login((String) map.get("user_login"))
-                .name((String) map.get("user_name"))
-                .build()
-        ).collect(Collectors.toCollection(ArrayList::new));
+        long[] friendIds = friendGraphEnabled
+                ? friendGraph.getCommonFriends(userId, otherUserId)
+                : measure(FIND_COMMON_FRIEND_IDS,
+                        () -> jdbc.queryForList(FIND_COMMON_FRIEND_IDS, Long.class, userId, otherUserId)).stream()
+                .mapToLong(Long::longValue).toArray();
+        return findFriendDtos(friendIds);
+    }
+
+    /**
+     * Загружает друзей по отсортированным ID пачками и возвращает их в том же порядке.
+     */
+    private List<UserFriendDto> findFriendDtos(long[] friendIds) {
+        if (friendIds.length == 0) {
+            return new ArrayList<>();
+        }
+        Map<Long, UserFriendDto> byId = new HashMap<>(friendIds.length * 2);
+        List<Long> ids = Arrays.stream(friendIds).boxed().toList();
+        for (List<Long> batch : partition(ids)) {
+            int before = byId.size();
+            measure(FIND_FRIEND_DTOS, () -> {
+                jdbc.query(FIND_FRIEND_DTOS.formatted(placeholders(batch.size())), FRIEND_DTO_MAPPER.forQuery(),
+                        batch.toArray()).forEach(dto -> byId.put(dto.getId(), dto));
+                return null;
+            });
+            recordRows(FIND_FRIEND_DTOS, byId.size() - before);
+        }
+        List<UserFriendDto> friends = new ArrayList<>(friendIds.length);
+        for (long id : friendIds) {
+            UserFriendDto dto = byId.get(id);
+            if (dto != null) {
+                friends.add(dto);
+            }
+        }
+        return friends;
     }
 }
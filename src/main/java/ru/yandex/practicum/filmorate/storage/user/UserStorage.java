@@ -5,6 +5,8 @@ import ru.yandex.practicum.filmorate.model.User;
 
 import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface UserStorage {
     User create(User user);
@@ -13,19 +15,28 @@ public interface UserStorage {
 
     Optional<User> getUserById(long id);
 
+    Optional<User> findByEmail(String email);
+
     Collection<User> getAll();
 
+    Collection<User> getPage(long afterId, int limit);
+
+    void streamAll(Consumer<User> consumer);
+
     void delete(long id);
 
-    void addFriend(long userId, long friendId);
+    boolean exists(long id);
+
+    Set<Long> getExistingIds(Collection<Long> ids);
+
+    boolean addFriend(long userId, long friendId);
 
     void confirmFriend(long userId, long friendId);
 
-    void deleteFriend(long userId, long friendId);
+    boolean deleteFriend(long userId, long friendId);
 
     Collection<UserFriendDto> getFriends(long userId);
 
     Collection<UserFriendDto> getCommonFriends(long userId, long otherUserId);
 
-    boolean checkRelationship(long userId, long friendId);
 }
@@ -0,0 +1,227 @@
+package ru.yandex.practicum.filmorate.utils;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Отображение {@code long -> boolean} на отсортированном массиве ключей, устроенное как {@link LongSet}.
+ * Методы {@link Map} работают, но упаковывают ключи и значения.
+ */
+@JsonSerialize(using = LongBooleanMap.Serializer.class)
+@JsonDeserialize(using = LongBooleanMap.Deserializer.class)
+public final class LongBooleanMap extends AbstractMap<Long, Boolean> {
+    private long[] keys = SortedLongArrays.EMPTY;
+    private boolean[] values = new boolean[0];
+    private int size;
+
+    public static LongBooleanMap copyOf(LongBooleanMap other) {
+        LongBooleanMap map = new LongBooleanMap();
+        map.keys = Arrays.copyOf(other.keys, other.size);
+        map.values = Arrays.copyOf(other.values, other.size);
+        map.size = other.size;
+        return map;
+    }
+
+    public void put(long key, boolean value) {
+        int index = indexOf(key);
+        if (index >= 0) {
+            values[index] = value;
+            return;
+        }
+        int position = -index - 1;
+        if (size == keys.length) {
+            int capacity = keys.length + (keys.length >> 1) + 1;
+            keys = Arrays.copyOf(keys, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        System.arraycopy(keys, position, keys, position + 1, size - position);
+        System.arraycopy(values, position, values, position + 1, size - position);
+        keys[position] = key;
+        values[position] = value;
+        size++;
+    }
+
+    public boolean containsKey(long key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * Значение по ключу или {@code false}, если ключа нет.
+     */
+    public boolean getBoolean(long key) {
+        int index = indexOf(key);
+        return index >= 0 && values[index];
+    }
+
+    public boolean remove(long key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return false;
+        }
+        removeAt(index);
+        return true;
+    }
+
+    public long[] keysToArray() {
+        return Arrays.copyOf(keys, size);
+    }
+
+    @Override
+    public Boolean put(Long key, Boolean value) {
+        Boolean previous = get(key);
+        put(key.longValue(), value.booleanValue());
+        return previous;
+    }
+
+    @Override
+    public Boolean get(Object key) {
+        if (!(key instanceof Long longKey)) {
+            return null;
+        }
+        int index = indexOf(longKey);
+        return index >= 0 ? values[index] : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Long longKey && containsKey(longKey.longValue());
+    }
+
+    @Override
+    public Boolean remove(Object key) {
+        Boolean previous = get(key);
+        if (previous != null) {
+            remove(((Long) key).longValue());
+        }
+        return previous;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+    }
+
+    @Override
+    public Set<Entry<Long, Boolean>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<Long, Boolean>> iterator() {
+                return new Iterator<>() {
+                    private int next;
+                    private int last = -1;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < size;
+                    }
+
+                    @Override
+                    public Entry<Long, Boolean> next() {
+                        if (next >= size) {
+                            throw new NoSuchElementException();
+                        }
+                        last = next++;
+                        return new SimpleImmutableEntry<>(keys[last], values[last]);
+                    }
+
+                    @Override
+                    public void remove() {
+                        if (last < 0) {
+                            throw new IllegalStateException();
+                        }
+                        removeAt(last);
+                        next = last;
+                        last = -1;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private int indexOf(long key) {
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void removeAt(int index) {
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+    }
+
+    public static final class Serializer extends StdSerializer<LongBooleanMap> {
+        public Serializer() {
+            super(LongBooleanMap.class);
+        }
+
+        @Override
+        public void serialize(LongBooleanMap map, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(map, map.size);
+            for (int i = 0; i < map.size; i++) {
+                gen.writeFieldId(map.keys[i]);
+                gen.writeBoolean(map.values[i]);
+            }
+            gen.writeEndObject();
+        }
+
+        @Override
+        public boolean isEmpty(SerializerProvider provider, LongBooleanMap map) {
+            return map.isEmpty();
+        }
+    }
+
+    public static final class Deserializer extends StdDeserializer<LongBooleanMap> {
+        public Deserializer() {
+            super(LongBooleanMap.class);
+        }
+
+        @Override
+        public LongBooleanMap deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            JsonToken token = p.currentToken();
+            if (token == JsonToken.START_OBJECT) {
+                token = p.nextToken();
+            } else if (token != JsonToken.FIELD_NAME && token != JsonToken.END_OBJECT) {
+                return (LongBooleanMap) ctxt.handleUnexpectedToken(LongBooleanMap.class, p);
+            }
+            LongBooleanMap map = new LongBooleanMap();
+            while (token == JsonToken.FIELD_NAME) {
+                String name = p.currentName();
+                long key;
+                try {
+                    key = Long.parseLong(name);
+                } catch (NumberFormatException e) {
+                    throw ctxt.weirdKeyException(Long.class, name, "ожидается числовой id");
+                }
+                p.nextToken();
+                map.put(key, p.getBooleanValue());
+                token = p.nextToken();
+            }
+            return map;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package ru.yandex.practicum.filmorate.utils;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.LongConsumer;
+
+/**
+ * Множество {@code long} на отсортированном массиве: 8 байт на элемент вместо объекта {@link Long}
+ * и узла хеш-таблицы. Добавление по возрастанию (как при чтении из БД с ORDER BY) - за амортизированное O(1),
+ * в произвольном порядке - O(n). Методы {@link java.util.Set} работают, но упаковывают значения.
+ */
+@JsonSerialize(using = LongSet.Serializer.class)
+@JsonDeserialize(using = LongSet.Deserializer.class)
+public final class LongSet extends AbstractSet<Long> {
+    private long[] values;
+    private int size;
+    private int modCount;
+
+    public LongSet() {
+        this.values = SortedLongArrays.EMPTY;
+    }
+
+    public LongSet(int capacity) {
+        this.values = capacity > 0 ? new long[capacity] : SortedLongArrays.EMPTY;
+    }
+
+    public static LongSet of(long... values) {
+        long[] sorted = SortedLongArrays.of(values);
+        LongSet set = new LongSet();
+        set.values = sorted;
+        set.size = sorted.length;
+        return set;
+    }
+
+    public static LongSet copyOf(Collection<Long> values) {
+        if (values instanceof LongSet other) {
+            LongSet set = new LongSet();
+            set.values = other.toLongArray();
+            set.size = other.size;
+            return set;
+        }
+        return of(values.stream().mapToLong(Long::longValue).toArray());
+    }
+
+    public boolean add(long value) {
+        if (size == 0 || value > values[size - 1]) {
+            ensureCapacity(size + 1);
+            values[size++] = value;
+            modCount++;
+            return true;
+        }
+        int index = Arrays.binarySearch(values, 0, size, value);
+        if (index >= 0) {
+            return false;
+        }
+        int position = -index - 1;
+        ensureCapacity(size + 1);
+        System.arraycopy(values, position, values, position + 1, size - position);
+        values[position] = value;
+        size++;
+        modCount++;
+        return true;
+    }
+
+    public boolean contains(long value) {
+        return Arrays.binarySearch(values, 0, size, value) >= 0;
+    }
+
+    public boolean remove(long value) {
+        int index = Arrays.binarySearch(values, 0, size, value);
+        if (index < 0) {
+            return false;
+        }
+        removeAt(index);
+        return true;
+    }
+
+    public long[] toLongArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    public void forEachLong(LongConsumer action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(values[i]);
+        }
+    }
+
+    @Override
+    public boolean add(Long value) {
+        return add(value.longValue());
+    }
+
+    @Override
+    public boolean contains(Object value) {
+        return value instanceof Long longValue && contains(longValue.longValue());
+    }
+
+    @Override
+    public boolean remove(Object value) {
+        return value instanceof Long longValue && remove(longValue.longValue());
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public PrimitiveIterator.OfLong iterator() {
+        return new PrimitiveIterator.OfLong() {
+            private int next;
+            private int last = -1;
+            private int expectedModCount = modCount;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public long nextLong() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+                last = next;
+                return values[next++];
+            }
+
+            @Override
+            public void remove() {
+                if (last < 0) {
+                    throw new IllegalStateException();
+                }
+                removeAt(last);
+                next = last;
+                last = -1;
+                expectedModCount = modCount;
+            }
+        };
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (int i = 0; i < size; i++) {
+            hash += Long.hashCode(values[i]);
+        }
+        return hash;
+    }
+
+    private void removeAt(int index) {
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+        modCount++;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > values.length) {
+            values = Arrays.copyOf(values, Math.max(capacity, values.length + (values.length >> 1) + 1));
+        }
+    }
+
+    public static final class Serializer extends StdSerializer<LongSet> {
+        public Serializer() {
+            super(LongSet.class);
+        }
+
+        @Override
+        public void serialize(LongSet set, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeArray(set.values, 0, set.size);
+        }
+
+        @Override
+        public boolean isEmpty(SerializerProvider provider, LongSet set) {
+            return set.isEmpty();
+        }
+    }
+
+    public static final class Deserializer extends StdDeserializer<LongSet> {
+        public Deserializer() {
+            super(LongSet.class);
+        }
+
+        @Override
+        public LongSet deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (!p.isExpectedStartArrayToken()) {
+                return (LongSet) ctxt.handleUnexpectedToken(LongSet.class, p);
+            }
+            LongSet set = new LongSet();
+            while (p.nextToken() != JsonToken.END_ARRAY) {
+                set.add(p.getLongValue());
+            }
+            return set;
+        }
+    }
+}
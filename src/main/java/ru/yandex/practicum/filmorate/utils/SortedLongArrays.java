@@ -0,0 +1,83 @@
+package ru.yandex.practicum.filmorate.utils;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.util.Arrays;
+
+/**
+ * Операции над отсортированными массивами {@code long} без повторов, используемыми как компактные множества.
+ * Массивы не изменяются: каждая операция возвращает новый массив либо исходный, если изменений нет.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class SortedLongArrays {
+    public static final long[] EMPTY = new long[0];
+
+    public static boolean contains(long[] values, long value) {
+        return Arrays.binarySearch(values, value) >= 0;
+    }
+
+    public static long[] insert(long[] values, long value) {
+        int index = Arrays.binarySearch(values, value);
+        if (index >= 0) {
+            return values;
+        }
+        int position = -index - 1;
+        long[] result = new long[values.length + 1];
+        System.arraycopy(values, 0, result, 0, position);
+        result[position] = value;
+        System.arraycopy(values, position, result, position + 1, values.length - position);
+        return result;
+    }
+
+    public static long[] remove(long[] values, long value) {
+        int index = Arrays.binarySearch(values, value);
+        if (index < 0) {
+            return values;
+        }
+        if (values.length == 1) {
+            return EMPTY;
+        }
+        long[] result = new long[values.length - 1];
+        System.arraycopy(values, 0, result, 0, index);
+        System.arraycopy(values, index + 1, result, index, values.length - index - 1);
+        return result;
+    }
+
+    /**
+     * Пересечение двух отсортированных массивов слиянием за O(n + m).
+     */
+    public static long[] intersect(long[] left, long[] right) {
+        long[] result = new long[Math.min(left.length, right.length)];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                result[size++] = left[i];
+                i++;
+                j++;
+            }
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Сортирует массив и убирает повторы.
+     */
+    public static long[] of(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int size = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[size++] = sorted[i];
+            }
+        }
+        return size == sorted.length ? sorted : Arrays.copyOf(sorted, size);
+    }
+}
@@ -0,0 +1,11 @@
+-- Изменения поверх исходного schema.sql (V1), на котором базируются существующие базы.
+-- До перехода на Flyway data.sql очищал пользователей и фильмы при каждом старте,
+-- поэтому идентификаторы можно переводить на identity без сдвига счетчиков.
+ALTER TABLE mpa ALTER COLUMN id SET GENERATED BY DEFAULT;
+ALTER TABLE genres ALTER COLUMN id SET GENERATED BY DEFAULT;
+ALTER TABLE users ALTER COLUMN id SET GENERATED BY DEFAULT;
+ALTER TABLE films ALTER COLUMN id SET GENERATED BY DEFAULT;
+
+ALTER TABLE films ADD COLUMN IF NOT EXISTS likes_count BIGINT NOT NULL DEFAULT 0;
+UPDATE films f SET likes_count = (SELECT COUNT(*) FROM film_likes fl WHERE fl.film_id = f.id);
+CREATE INDEX IF NOT EXISTS films_likes_count_idx ON films (likes_count DESC, id);
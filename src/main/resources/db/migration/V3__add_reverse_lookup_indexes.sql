@@ -0,0 +1,6 @@
+-- Составные первичные ключи покрывают только поиск по первой колонке,
+-- обратные выборки (кто дружит с пользователем, что лайкнул пользователь, фильмы жанра)
+-- без этих индексов читают таблицу целиком.
+CREATE INDEX IF NOT EXISTS friends_friend_id_idx ON friends (friend_id);
+CREATE INDEX IF NOT EXISTS film_likes_user_id_idx ON film_likes (user_id);
+CREATE INDEX IF NOT EXISTS film_genres_genre_id_idx ON film_genres (genre_id);
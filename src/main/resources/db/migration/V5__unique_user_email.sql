@@ -0,0 +1,4 @@
+-- Перед миграцией email в users должны быть уникальными, иначе создание индекса упадет.
+-- Дубликаты можно найти запросом:
+--   SELECT email, COUNT(*) FROM users GROUP BY email HAVING COUNT(*) > 1;
+CREATE UNIQUE INDEX IF NOT EXISTS users_email_uq ON users (email);
@@ -0,0 +1,6 @@
+-- Время лайка для трендов. Время существующих лайков неизвестно, поэтому они остаются с NULL
+-- и в тренды не попадают; значение по умолчанию проставляется только новым лайкам.
+-- Индекс нужен для загрузки лайков последних окон при старте без чтения всей таблицы.
+ALTER TABLE film_likes ADD COLUMN IF NOT EXISTS liked_at TIMESTAMP WITH TIME ZONE;
+ALTER TABLE film_likes ALTER COLUMN liked_at SET DEFAULT CURRENT_TIMESTAMP;
+CREATE INDEX IF NOT EXISTS film_likes_liked_at_idx ON film_likes (liked_at);
@@ -0,0 +1,64 @@
+package ru.yandex.practicum.filmorate.config;
+
+import org.junit.jupiter.api.Test;
+import org.zalando.logbook.HttpRequest;
+import org.zalando.logbook.HttpResponse;
+
+import java.io.IOException;
+import java.util.Set;
+
+import static org.mockito.Mockito.*;
+
+class HttpLoggingStrategyTest {
+
+    @Test
+    void headersModeNeverBuffersBodies() throws IOException {
+        HttpLoggingStrategy strategy = new HttpLoggingStrategy(HttpLoggingStrategy.Mode.HEADERS, 1.0, Set.of());
+        HttpRequest request = request("POST", "/films");
+        HttpResponse response = mock(HttpResponse.class);
+
+        strategy.process(request);
+        strategy.process(request, response);
+
+        verify(request).withoutBody();
+        verify(response).withoutBody();
+        verify(response, never()).withBody();
+    }
+
+    @Test
+    void fullModeSkipsResponseBodyOfExcludedCollections() throws IOException {
+        HttpLoggingStrategy strategy = new HttpLoggingStrategy(HttpLoggingStrategy.Mode.FULL, 0.0, Set.of("/films"));
+        HttpRequest list = request("GET", "/films");
+        HttpResponse listResponse = mock(HttpResponse.class);
+        HttpRequest single = request("GET", "/films/1");
+        HttpResponse singleResponse = mock(HttpResponse.class);
+
+        strategy.process(list);
+        strategy.process(list, listResponse);
+        strategy.process(single);
+        strategy.process(single, singleResponse);
+
+        verify(listResponse).withoutBody();
+        verify(singleResponse).withBody();
+    }
+
+    @Test
+    void sampledModeWithZeroRateLogsNoBodies() throws IOException {
+        HttpLoggingStrategy strategy = new HttpLoggingStrategy(HttpLoggingStrategy.Mode.SAMPLED, 0.0, Set.of());
+        HttpRequest request = request("PUT", "/users");
+        HttpResponse response = mock(HttpResponse.class);
+
+        strategy.process(request);
+        strategy.process(request, response);
+
+        verify(request).withoutBody();
+        verify(response).withoutBody();
+    }
+
+    private HttpRequest request(String method, String path) {
+        HttpRequest request = mock(HttpRequest.class);
+        when(request.getMethod()).thenReturn(method);
+        when(request.getPath()).thenReturn(path);
+        return request;
+    }
+}
@@ -227,4 +227,68 @@ public class FilmControllerTest extends AbstractControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(2)));
     }
+
+    @Test
+    void summaryViewOmitsLikeIds() throws Exception {
+        String response = performRequest(HttpMethodEnum.POST, "/films", createJson(filmToMap(randomUtils.getFilm())))
+                .andReturn().getResponse().getContentAsString();
+        User user = randomUtils.getUser();
+        String responseUser = performRequest(HttpMethodEnum.POST, "/users", createJson(Map.of(
+                "email", user.getEmail(),
+                "login", user.getLogin(),
+                "name", user.getName(),
+                "birthday", user.getBirthday().toString()
+        ))).andReturn().getResponse().getContentAsString();
+
+        long filmId = objectMapper.readTree(response).get("id").asLong();
+        long userId = objectMapper.readTree(responseUser).get("id").asLong();
+        performRequest(HttpMethodEnum.PUT, "/films/{id}/like/{userId}", filmId, userId)
+                .andExpect(status().isOk());
+
+        performRequest(HttpMethodEnum.GET, "/films/{id}?view=summary", filmId)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.likesCount").value(1))
+                .andExpect(jsonPath("$.likes").doesNotExist())
+                .andExpect(jsonPath("$.description").doesNotExist());
+        performRequest(HttpMethodEnum.GET, "/films/popular?view=summary&count=1")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(filmId))
+                .andExpect(jsonPath("$[0].likesCount").value(1));
+        performRequest(HttpMethodEnum.GET, "/films?view=summary")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].likes").doesNotExist());
+    }
+
+    @Test
+    void trendingRanksRecentLikes() throws Exception {
+        String response = performRequest(HttpMethodEnum.POST, "/films", createJson(filmToMap(randomUtils.getFilm())))
+                .andReturn().getResponse().getContentAsString();
+        User user = randomUtils.getUser();
+        String responseUser = performRequest(HttpMethodEnum.POST, "/users", createJson(Map.of(
+                "email", user.getEmail(),
+                "login", user.getLogin(),
+                "name", user.getName(),
+                "birthday", user.getBirthday().toString()
+        ))).andReturn().getResponse().getContentAsString();
+
+        long filmId = objectMapper.readTree(response).get("id").asLong();
+        long userId = objectMapper.readTree(responseUser).get("id").asLong();
+        performRequest(HttpMethodEnum.PUT, "/films/{id}/like/{userId}", filmId, userId)
+                .andExpect(status().isOk());
+
+        performRequest(HttpMethodEnum.GET, "/films/trending?window=1h")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(filmId));
+        performRequest(HttpMethodEnum.DELETE, "/films/{id}/like/{userId}", filmId, userId)
+                .andExpect(status().isOk());
+        performRequest(HttpMethodEnum.GET, "/films/trending?window=PT1H")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+        performRequest(HttpMethodEnum.GET, "/films/trending?window=2h")
+                .andExpect(status().isBadRequest());
+        performRequest(HttpMethodEnum.GET, "/films/trending?window=soon")
+                .andExpect(status().isBadRequest());
+    }
 }
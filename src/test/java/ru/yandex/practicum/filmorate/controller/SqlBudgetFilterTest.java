@@ -0,0 +1,52 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ru.yandex.practicum.filmorate.utils.HttpMethodEnum;
+import ru.yandex.practicum.filmorate.utils.RandomUtils;
+
+import java.util.Map;
+
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "filmorate.sql.trace.enabled=true",
+        "filmorate.sql.trace.headers=true"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class SqlBudgetFilterTest extends AbstractControllerTest {
+
+    @Autowired
+    private SqlBudgetFilter sqlBudgetFilter;
+
+    @BeforeEach
+    @Override
+    public void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).addFilters(sqlBudgetFilter).build();
+        randomUtils = new RandomUtils();
+    }
+
+    @Test
+    void testResponseCarriesSqlBudgetHeaders() throws Exception {
+        String json = createJson(Map.of(
+                "email", "budget@mail.ru",
+                "login", "budget",
+                "name", "Budget",
+                "birthday", "1990-01-01"
+        ));
+        performRequest(HttpMethodEnum.POST, "/users", json)
+                .andExpect(status().isOk());
+
+        performRequest(HttpMethodEnum.GET, "/users/login?email=budget@mail.ru")
+                .andExpect(status().isOk())
+                .andExpect(header().string(SqlBudgetFilter.QUERIES_HEADER, not("0")))
+                .andExpect(header().exists(SqlBudgetFilter.TIME_HEADER))
+                .andExpect(header().exists(SqlBudgetFilter.ROWS_HEADER));
+    }
+}
@@ -125,6 +125,27 @@ public class UserControllerTest extends AbstractControllerTest {
                 .andExpect(jsonPath("$", hasSize(count)));
     }
 
+    @Test
+    void testGetUsersPage() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            performRequest(HttpMethodEnum.POST, "/users", createJson(userToMap(randomUtils.getUser())));
+        }
+
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        params.add("limit", "2");
+        String nextCursor = performRequest(HttpMethodEnum.GET, "/users", params)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(header().exists("Link"))
+                .andReturn().getResponse().getHeader("X-Next-Cursor");
+
+        params.add("afterId", nextCursor);
+        performRequest(HttpMethodEnum.GET, "/users", params)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(header().doesNotExist("Link"));
+    }
+
     @Test
     void testGetUserById() throws Exception {
         User user = randomUtils.getUser();
@@ -281,4 +302,14 @@ public class UserControllerTest extends AbstractControllerTest {
                 .andExpect(jsonPath("$[0].id").value(userId3));
 
     }
+
+    @Test
+    void testReturnNotFoundForCommonFriendsOfMissingUser() throws Exception {
+        String response = performRequest(HttpMethodEnum.POST, "/users", createJson(userToMap(randomUtils.getUser())))
+                .andReturn().getResponse().getContentAsString();
+        long userId = objectMapper.readTree(response).get("id").asLong();
+
+        performRequest(HttpMethodEnum.GET, "/users/{id}/friends/common/{otherId}", userId, 100)
+                .andExpect(status().isNotFound());
+    }
 }
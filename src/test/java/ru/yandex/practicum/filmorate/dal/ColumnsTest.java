@@ -0,0 +1,48 @@
+package ru.yandex.practicum.filmorate.dal;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class ColumnsTest {
+
+    @Test
+    void resolvesIndexesInLabelOrder() throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.findColumn("film_id")).thenReturn(3);
+        when(rs.findColumn("like_user_id")).thenReturn(1);
+
+        assertThat(Columns.of("film_id", "like_user_id").resolve(rs)).containsExactly(3, 1);
+    }
+
+    @Test
+    void failsOnMissingColumn() throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.findColumn("user_id")).thenThrow(new SQLException("Column \"user_id\" not found"));
+
+        assertThatThrownBy(() -> Columns.of("user_id").resolve(rs)).isInstanceOf(SQLException.class);
+    }
+
+    @Test
+    void queryMapperResolvesOncePerResultSet() throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.findColumn("id")).thenReturn(1);
+        when(rs.getLong(1)).thenReturn(7L, 8L);
+        IndexedRowMapper<Long> mapper = new IndexedRowMapper<>(Columns.of("id")) {
+            @Override
+            public Long mapRow(ResultSet rs, int[] columns) throws SQLException {
+                return rs.getLong(columns[0]);
+            }
+        };
+
+        var rowMapper = mapper.forQuery();
+        assertThat(rowMapper.mapRow(rs, 1)).isEqualTo(7L);
+        assertThat(rowMapper.mapRow(rs, 2)).isEqualTo(8L);
+        verify(rs, times(1)).findColumn("id");
+    }
+}
@@ -0,0 +1,59 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class QueryMetricsTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final QueryMetrics queryMetrics = new QueryMetrics(registry);
+
+    @Test
+    void queryNamesAreResolvedFromConstants() {
+        Map<String, String> names = QueryMetrics.queryNames(FilmDbStorage.class);
+
+        assertThat(names).containsValue("FIND_BY_ID").containsValue("MERGE_LIKE");
+    }
+
+    @Test
+    void recordsTimerByOutcomeAndRows() {
+        QueryMetrics.Meters meters = queryMetrics.meters("FilmDbStorage", "FIND_BY_ID");
+
+        meters.record(() -> 1);
+        meters.rows().record(3);
+        assertThatThrownBy(() -> meters.record(() -> {
+            throw new IllegalStateException();
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(registry.get(QueryMetrics.QUERY_TIMER).tag("query", "FIND_BY_ID").tag("outcome", "success")
+                .timer().count()).isEqualTo(1);
+        assertThat(registry.get(QueryMetrics.QUERY_TIMER).tag("outcome", "error").timer().count()).isEqualTo(1);
+        assertThat(registry.get(QueryMetrics.ROWS_SUMMARY).summary().totalAmount()).isEqualTo(3);
+    }
+
+    @Test
+    void rowCountingExtractorCountsResultRowsNotEntities() throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.next()).thenReturn(true, true, true, false);
+        when(rs.getLong("id")).thenReturn(1L);
+        RowCountingExtractor<Map<Long, Long>> counting = new RowCountingExtractor<>(resultSet -> {
+            long id = 0;
+            while (resultSet.next()) {
+                id = resultSet.getLong("id");
+            }
+            return Map.of(id, id);
+        });
+
+        assertThat(counting.extractData(rs)).hasSize(1);
+        assertThat(counting.getRows()).isEqualTo(3);
+    }
+}
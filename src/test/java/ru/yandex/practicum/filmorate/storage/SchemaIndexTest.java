@@ -0,0 +1,43 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@Import(SchemaIndexVerifier.class)
+class SchemaIndexTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private SchemaIndexVerifier schemaIndexVerifier;
+
+    @Test
+    void migrationsCreateAllRequiredIndexes() {
+        assertThat(schemaIndexVerifier.findMissingIndexes()).isEmpty();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "SELECT id FROM users WHERE email = 'user@mail.ru'",
+            "SELECT user_id FROM friends WHERE friend_id = 1",
+            "SELECT friend_id FROM friends WHERE user_id = 1",
+            "SELECT film_id FROM film_likes WHERE user_id = 1",
+            "SELECT user_id FROM film_likes WHERE film_id = 1",
+            "SELECT film_id FROM film_genres WHERE genre_id = 1"
+    })
+    void hotQueriesUseIndexLookup(String query) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + query, String.class);
+
+        assertThat(plan).doesNotContainIgnoringCase("tableScan");
+    }
+}
@@ -0,0 +1,81 @@
+package ru.yandex.practicum.filmorate.storage.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoundedCacheTest {
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void evictsLeastRecentlyUsedEntry() {
+        BoundedCache<Long, String> cache = new BoundedCache<>(2, Duration.ofMinutes(1), now::get);
+        cache.put(1L, "first");
+        cache.put(2L, "second");
+
+        assertThat(cache.get(1L)).contains("first");
+        cache.put(3L, "third");
+
+        assertThat(cache.get(2L)).isEmpty();
+        assertThat(cache.get(1L)).contains("first");
+        assertThat(cache.get(3L)).contains("third");
+
+        CacheStats stats = cache.stats();
+        assertThat(stats.evictions()).isEqualTo(1);
+        assertThat(stats.hits()).isEqualTo(3);
+        assertThat(stats.misses()).isEqualTo(1);
+        assertThat(stats.size()).isEqualTo(2);
+    }
+
+    @Test
+    void expiresEntriesAfterTtl() {
+        BoundedCache<Long, String> cache = new BoundedCache<>(10, Duration.ofSeconds(1), now::get);
+        cache.put(1L, "value");
+
+        now.addAndGet(Duration.ofMillis(500).toNanos());
+        assertThat(cache.get(1L)).contains("value");
+
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertThat(cache.get(1L)).isEmpty();
+        assertThat(cache.stats().expirations()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidateRemovesEntry() {
+        BoundedCache<Long, String> cache = new BoundedCache<>(10, Duration.ofMinutes(1), now::get);
+        cache.put(1L, "value");
+
+        cache.invalidate(1L);
+
+        assertThat(cache.get(1L)).isEmpty();
+        assertThat(cache.stats().size()).isZero();
+    }
+
+    @Test
+    void putWithStaleStampIsSkipped() {
+        BoundedCache<Long, String> cache = new BoundedCache<>(10, Duration.ofMinutes(1), now::get);
+        long stamp = cache.stamp();
+
+        cache.invalidate(1L);
+
+        assertThat(cache.put(1L, "stale", stamp)).isFalse();
+        assertThat(cache.get(1L)).isEmpty();
+        assertThat(cache.put(1L, "fresh", cache.stamp())).isTrue();
+        assertThat(cache.get(1L)).contains("fresh");
+    }
+
+    @Test
+    void invalidateIfRemovesMatchingEntries() {
+        BoundedCache<Long, String> cache = new BoundedCache<>(10, Duration.ofMinutes(1), now::get);
+        cache.put(1L, "keep");
+        cache.put(2L, "drop");
+
+        cache.invalidateIf("drop"::equals);
+
+        assertThat(cache.get(1L)).contains("keep");
+        assertThat(cache.get(2L)).isEmpty();
+    }
+}
@@ -6,27 +6,50 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.yandex.practicum.filmorate.dal.film.FilmResultSetExtractor;
 import ru.yandex.practicum.filmorate.dal.film.FilmRowMapper;
 import ru.yandex.practicum.filmorate.dal.user.UserResultSetExtractor;
 import ru.yandex.practicum.filmorate.dal.user.UserRowMapper;
 import ru.yandex.practicum.filmorate.dto.FilmDto;
+import ru.yandex.practicum.filmorate.dto.FilmSummaryDto;
+import ru.yandex.practicum.filmorate.dto.LikePair;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.user.FriendGraph;
 import ru.yandex.practicum.filmorate.storage.user.UserDbStorage;
 import ru.yandex.practicum.filmorate.utils.RandomUtils;
 
-import java.util.Collection;
-import java.util.List;
-import java.util.Optional;
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @JdbcTest
 @AutoConfigureTestDatabase
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
-@Import({FilmDbStorage.class, UserDbStorage.class, FilmResultSetExtractor.class, FilmRowMapper.class, UserResultSetExtractor.class, UserRowMapper.class})
+@Import({FilmDbStorage.class, FilmPopularityIndex.class, TrendingIndex.class, UserDbStorage.class, FriendGraph.class, FilmResultSetExtractor.class, FilmRowMapper.class, UserResultSetExtractor.class, UserRowMapper.class})
+// Индексы в памяти обновляются после фиксации, поэтому тесты работают без общей транзакции.
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
 class FilmDbStorageTest {
 
@@ -34,6 +57,12 @@ class FilmDbStorageTest {
     private FilmDbStorage filmDbStorage;
     @Autowired
     private UserDbStorage userDbStorage;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private FilmResultSetExtractor filmResultSetExtractor;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
     protected RandomUtils randomUtils = new RandomUtils();
 
     @Test
@@ -80,6 +109,48 @@ class FilmDbStorageTest {
         assertThat(films.size()).isGreaterThanOrEqualTo(2);
     }
 
+    @Test
+    void getPage() {
+        Film film1 = filmDbStorage.create(randomUtils.getFilm());
+        Film film2 = filmDbStorage.create(randomUtils.getFilm());
+        Film film3 = filmDbStorage.create(randomUtils.getFilm());
+
+        Collection<Film> firstPage = filmDbStorage.getPage(0, 2);
+        assertThat(firstPage).extracting(Film::getId).containsExactly(film1.getId(), film2.getId());
+
+        Collection<Film> secondPage = filmDbStorage.getPage(film2.getId(), 2);
+        assertThat(secondPage).extracting(Film::getId).containsExactly(film3.getId());
+    }
+
+    @Test
+    void streamAll() {
+        Film film1 = filmDbStorage.create(randomUtils.getFilm());
+        Film film2 = filmDbStorage.create(randomUtils.getFilm());
+        User user1 = userDbStorage.create(randomUtils.getUser());
+        User user2 = userDbStorage.create(randomUtils.getUser());
+        filmDbStorage.addLike(film1.getId(), user1.getId());
+        filmDbStorage.addLike(film2.getId(), user1.getId());
+        filmDbStorage.addLike(film2.getId(), user2.getId());
+
+        List<Film> streamed = new ArrayList<>();
+        filmDbStorage.streamAll(streamed::add);
+
+        assertThat(streamed).extracting(Film::getId).containsExactly(film1.getId(), film2.getId());
+        assertThat(streamed.get(0).getLikes()).containsExactly(user1.getId());
+        assertThat(streamed.get(1).getLikes()).containsExactlyInAnyOrder(user1.getId(), user2.getId());
+        assertThat(streamed.get(0).getGenres()).hasSameSizeAs(film1.getGenres());
+        assertThat(streamed.get(1).getGenres()).hasSameSizeAs(film2.getGenres());
+    }
+
+    @Test
+    void exists() {
+        Film film1 = filmDbStorage.create(randomUtils.getFilm());
+        Film film2 = filmDbStorage.create(randomUtils.getFilm());
+
+        assertThat(filmDbStorage.exists(film1.getId())).isTrue();
+        assertThat(filmDbStorage.exists(film2.getId() + 1)).isFalse();
+    }
+
     @Test
     void delete() {
         Film film = filmDbStorage.create(randomUtils.getFilm());
@@ -165,6 +236,104 @@ class FilmDbStorageTest {
                 );
     }
 
+    @Test
+    void likesAreHydratedOnEveryReadPath() {
+        Film film = filmDbStorage.create(randomUtils.getFilm());
+        User user1 = userDbStorage.create(randomUtils.getUser());
+        User user2 = userDbStorage.create(randomUtils.getUser());
+        filmDbStorage.addLike(film.getId(), user2.getId());
+        filmDbStorage.addLike(film.getId(), user1.getId());
+        Set<Long> expected = Set.of(user1.getId(), user2.getId());
+
+        assertThat(filmDbStorage.getFilmById(film.getId()).orElseThrow().getLikes()).isEqualTo(expected);
+        assertThat(filmDbStorage.getAll().iterator().next().getLikes()).isEqualTo(expected);
+        assertThat(filmDbStorage.getPage(0, 10).iterator().next().getLikes()).isEqualTo(expected);
+        assertThat(filmDbStorage.getPopularFilms(1).iterator().next().getLikes()).isEqualTo(expected);
+        List<Film> streamed = new ArrayList<>();
+        filmDbStorage.streamAll(streamed::add);
+        assertThat(streamed.get(0).getLikes()).isEqualTo(expected);
+    }
+
+    @Test
+    void summariesUseLikesCounter() {
+        Film film = filmDbStorage.create(randomUtils.getFilm());
+        Film other = filmDbStorage.create(randomUtils.getFilm());
+        User user = userDbStorage.create(randomUtils.getUser());
+        filmDbStorage.addLike(film.getId(), user.getId());
+
+        FilmSummaryDto summary = filmDbStorage.getSummaryById(film.getId()).orElseThrow();
+        assertThat(summary.getName()).isEqualTo(film.getName());
+        assertThat(summary.getMpa().getId()).isEqualTo(film.getMpa().getId());
+        assertThat(summary.getGenres()).extracting(Genre::getId)
+                .containsExactlyInAnyOrderElementsOf(film.getGenres().stream().map(Genre::getId).toList());
+        assertThat(summary.getLikesCount()).isEqualTo(1);
+
+        assertThat(filmDbStorage.getPopularSummaries(2)).extracting(FilmSummaryDto::getId)
+                .containsExactly(film.getId(), other.getId());
+        assertThat(filmDbStorage.getSummaryPage(film.getId(), 10)).extracting(FilmSummaryDto::getId)
+                .containsExactly(other.getId());
+        assertThat(filmDbStorage.getAllSummaries()).hasSize(2);
+        assertThat(filmDbStorage.getSummaryById(-1)).isEmpty();
+    }
+
+    @Test
+    void trendingFollowsLikeTimes() {
+        Film film = filmDbStorage.create(randomUtils.getFilm());
+        Film other = filmDbStorage.create(randomUtils.getFilm());
+        User user = userDbStorage.create(randomUtils.getUser());
+        User another = userDbStorage.create(randomUtils.getUser());
+        Duration day = Duration.ofDays(1);
+
+        filmDbStorage.addLike(film.getId(), user.getId());
+        filmDbStorage.addLikes(List.of(new LikePair(other.getId(), user.getId()),
+                new LikePair(other.getId(), another.getId())));
+        assertThat(filmDbStorage.getTrendingSummaries(day, 10)).extracting(FilmSummaryDto::getId)
+                .containsExactly(other.getId(), film.getId());
+
+        filmDbStorage.removeLikes(List.of(new LikePair(other.getId(), user.getId()),
+                new LikePair(other.getId(), another.getId())));
+        assertThat(filmDbStorage.getTrendingSummaries(day, 10)).extracting(FilmSummaryDto::getId)
+                .containsExactly(film.getId());
+
+        jdbcTemplate.update("UPDATE film_likes SET liked_at = DATEADD('DAY', -30, CURRENT_TIMESTAMP) WHERE film_id = ?",
+                film.getId());
+        filmDbStorage.init();
+        assertThat(filmDbStorage.getTrendingSummaries(day, 10)).isEmpty();
+
+        // Лайки, поставленные до появления liked_at, хранятся без времени и в тренды не попадают
+        jdbcTemplate.update("UPDATE film_likes SET liked_at = NULL WHERE film_id = ?", film.getId());
+        filmDbStorage.init();
+        assertThat(filmDbStorage.removeLike(film.getId(), user.getId())).isTrue();
+        assertThat(filmDbStorage.getTrendingSummaries(day, 10)).isEmpty();
+        assertThatThrownBy(() -> filmDbStorage.getTrendingSummaries(Duration.ofMinutes(7), 10))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    @Test
+    void trendingUnlikeHitsBucketOfLike() {
+        TrendingIndexTest.MutableClock clock =
+                new TrendingIndexTest.MutableClock(Instant.parse("2024-05-01T10:04:59.900Z"));
+        TrendingIndex index = new TrendingIndex(clock, true, Duration.ofMinutes(5), List.of(Duration.ofHours(1)),
+                Duration.ofHours(6));
+        FilmDbStorage storage = new FilmDbStorage(jdbcTemplate, filmResultSetExtractor, new FilmPopularityIndex(), index,
+                true, 500);
+        Film film = storage.create(randomUtils.getFilm());
+        User user = userDbStorage.create(randomUtils.getUser());
+        User another = userDbStorage.create(randomUtils.getUser());
+
+        storage.addLike(film.getId(), user.getId());
+        storage.addLikes(List.of(new LikePair(film.getId(), another.getId())));
+        // Лайки поставлены в последние миллисекунды корзины, снимаются уже в следующей
+        clock.advance(Duration.ofMillis(200));
+        assertThat(index.getScore(Duration.ofHours(1), film.getId())).isPositive();
+
+        storage.removeLike(film.getId(), user.getId());
+        storage.removeLikes(List.of(new LikePair(film.getId(), another.getId())));
+
+        assertThat(index.getScore(Duration.ofHours(1), film.getId())).isZero();
+        assertThat(storage.getTrendingSummaries(Duration.ofHours(1), 10)).isEmpty();
+    }
+
     @Test
     void removeLike() {
         Film film = filmDbStorage.create(randomUtils.getFilm());
@@ -180,4 +349,153 @@ class FilmDbStorageTest {
         Collection<FilmDto> popularAfterRemove = filmDbStorage.getPopularFilms(1);
         assertThat(popularAfterRemove.iterator().next().getLikesCount()).isEqualTo(0);
     }
-}
\ No newline at end of file
+
+    @Test
+    void likeWritesAreIdempotent() {
+        Film film = filmDbStorage.create(randomUtils.getFilm());
+        User user = userDbStorage.create(randomUtils.getUser());
+
+        assertThat(filmDbStorage.addLike(film.getId(), user.getId())).isTrue();
+        assertThat(filmDbStorage.addLike(film.getId(), user.getId())).isFalse();
+        assertThat(filmDbStorage.getPopularFilms(1).iterator().next().getLikesCount()).isEqualTo(1);
+
+        assertThat(filmDbStorage.removeLike(film.getId(), user.getId())).isTrue();
+        assertThat(filmDbStorage.removeLike(film.getId(), user.getId())).isFalse();
+        assertThat(filmDbStorage.reconcileLikeCounts()).isEmpty();
+    }
+
+    @Test
+    void addAndRemoveLikesInBatch() {
+        Film film = filmDbStorage.create(randomUtils.getFilm());
+        User first = userDbStorage.create(randomUtils.getUser());
+        User second = userDbStorage.create(randomUtils.getUser());
+        filmDbStorage.addLike(film.getId(), first.getId());
+
+        List<LikePair> added = filmDbStorage.addLikes(List.of(
+                new LikePair(film.getId(), first.getId()),
+                new LikePair(film.getId(), second.getId())));
+
+        assertThat(added).containsExactly(new LikePair(film.getId(), second.getId()));
+        assertThat(filmDbStorage.getFilmById(film.getId()).orElseThrow().getLikes())
+                .containsExactlyInAnyOrder(first.getId(), second.getId());
+        assertThat(filmDbStorage.getPopularFilms(1).iterator().next().getLikesCount()).isEqualTo(2);
+
+        List<LikePair> removed = filmDbStorage.removeLikes(List.of(
+                new LikePair(film.getId(), first.getId()),
+                new LikePair(film.getId(), first.getId())));
+
+        assertThat(removed).hasSize(1);
+        assertThat(filmDbStorage.getPopularFilms(1).iterator().next().getLikesCount()).isEqualTo(1);
+        assertThat(filmDbStorage.reconcileLikeCounts()).isEmpty();
+    }
+
+    @Test
+    void getExistingIds() {
+        Film film = filmDbStorage.create(randomUtils.getFilm());
+
+        assertThat(filmDbStorage.getExistingIds(List.of(film.getId(), film.getId(), 9999L)))
+                .containsExactly(film.getId());
+    }
+
+    @Test
+    void reconcileLikeCounts() {
+        Film film = filmDbStorage.create(randomUtils.getFilm());
+        User user = userDbStorage.create(randomUtils.getUser());
+        filmDbStorage.addLike(film.getId(), user.getId());
+
+        assertThat(filmDbStorage.reconcileLikeCounts()).isEmpty();
+
+        jdbcTemplate.update("UPDATE films SET likes_count = 5 WHERE id = ?", film.getId());
+
+        Map<Long, Long> drift = filmDbStorage.reconcileLikeCounts();
+        assertThat(drift).containsEntry(film.getId(), 4L);
+
+        Long likesCount = jdbcTemplate.queryForObject(
+                "SELECT likes_count FROM films WHERE id = ?", Long.class, film.getId());
+        assertThat(likesCount).isEqualTo(1);
+        assertThat(filmDbStorage.getPopularFilms(1).iterator().next().getLikesCount()).isEqualTo(1);
+    }
+
+    @Test
+    void popularityIndexIgnoresRolledBackLikes() {
+        Film film = filmDbStorage.create(randomUtils.getFilm());
+        Film other = filmDbStorage.create(randomUtils.getFilm());
+        User user = userDbStorage.create(randomUtils.getUser());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            filmDbStorage.addLike(other.getId(), user.getId());
+            status.setRollbackOnly();
+        });
+
+        assertThat(filmDbStorage.getPopularFilms(2)).extracting(FilmDto::getId)
+                .containsExactly(film.getId(), other.getId());
+    }
+
+    @Test
+    void getFilmByIdReadsGenresAndLikesWithoutFanOut() {
+        Film film = randomUtils.getFilm();
+        film.setGenres(LongStream.rangeClosed(1, 6)
+                .mapToObj(id -> Genre.builder().id(id).build())
+                .collect(Collectors.toSet()));
+        film = filmDbStorage.create(film);
+        int likes = 5;
+        for (int i = 0; i < likes; i++) {
+            filmDbStorage.addLike(film.getId(), userDbStorage.create(randomUtils.getUser()).getId());
+        }
+
+        // Один запрос с LEFT JOIN жанров и лайков возвращает жанры * лайки строк
+        Long joinedRows = jdbcTemplate.queryForObject("""
+                SELECT COUNT(*)
+                FROM films f
+                    JOIN mpa m ON f.mpa_id = m.id
+                    LEFT JOIN film_genres fg ON f.id = fg.film_id
+                    LEFT JOIN film_likes fl ON f.id = fl.film_id
+                WHERE f.id = ?""", Long.class, film.getId());
+        assertThat(joinedRows).isEqualTo(6L * likes);
+
+        // Раздельные запросы читают фильм + жанры + лайки строк
+        RowCountingJdbcTemplate countingJdbc = new RowCountingJdbcTemplate(jdbcTemplate.getDataSource());
+        FilmDbStorage storage = new FilmDbStorage(countingJdbc, filmResultSetExtractor, new FilmPopularityIndex(),
+                new TrendingIndex(false, Duration.ofMinutes(5), List.of(Duration.ofDays(1)), Duration.ofHours(6)), false, 500);
+
+        Optional<Film> loaded = storage.getFilmById(film.getId());
+
+        assertThat(loaded).isPresent().hasValueSatisfying(f -> {
+            assertThat(f.getGenres()).hasSize(6);
+            assertThat(f.getLikes()).hasSize(likes);
+        });
+        assertThat(countingJdbc.getRows()).isEqualTo(1 + 6 + likes);
+    }
+
+    private static class RowCountingJdbcTemplate extends JdbcTemplate {
+        private final AtomicLong rows = new AtomicLong();
+
+        RowCountingJdbcTemplate(DataSource dataSource) {
+            super(dataSource);
+        }
+
+        long getRows() {
+            return rows.get();
+        }
+
+        @Override
+        public <T> T query(PreparedStatementCreator psc, PreparedStatementSetter pss, ResultSetExtractor<T> rse) {
+            return super.query(psc, pss, rs -> rse.extractData(counting(rs)));
+        }
+
+        private ResultSet counting(ResultSet rs) {
+            return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                    (proxy, method, args) -> {
+                        try {
+                            Object result = method.invoke(rs, args);
+                            if ("next".equals(method.getName()) && Boolean.TRUE.equals(result)) {
+                                rows.incrementAndGet();
+                            }
+                            return result;
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FilmPopularityIndexTest {
+    private final FilmPopularityIndex index = new FilmPopularityIndex();
+
+    @Test
+    void topOrdersByLikesThenById() {
+        index.load(Map.of(1L, 1L, 2L, 3L, 3L, 2L, 4L, 2L));
+
+        assertThat(index.top(3)).containsExactly(2L, 3L, 4L);
+        assertThat(index.top(10)).containsExactly(2L, 3L, 4L, 1L);
+    }
+
+    @Test
+    void incrementMovesFilmInRanking() {
+        index.register(1L);
+        index.register(2L);
+
+        index.increment(2L, 1);
+        assertThat(index.top(1)).containsExactly(2L);
+
+        index.increment(1L, 1);
+        index.increment(1L, 1);
+        index.increment(2L, -1);
+
+        assertThat(index.top(2)).containsExactly(1L, 2L);
+        assertThat(index.getLikes(1L)).isEqualTo(2);
+        assertThat(index.getLikes(2L)).isEqualTo(0);
+    }
+
+    @Test
+    void removeDropsFilmFromRanking() {
+        index.load(Map.of(1L, 5L, 2L, 1L));
+
+        index.remove(1L);
+
+        assertThat(index.top(10)).containsExactly(2L);
+        assertThat(index.getLikes(1L)).isEqualTo(0);
+    }
+}
@@ -0,0 +1,95 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.dto.LikePair;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+import ru.yandex.practicum.filmorate.utils.LongSet;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class LikeWriteBehindBufferTest {
+    private final FilmStorage filmStorage = mock(FilmStorage.class);
+    private final UserStorage userStorage = mock(UserStorage.class);
+    private final LikeWriteBehindBuffer buffer =
+            new LikeWriteBehindBuffer(filmStorage, userStorage, true, 2, 100, Duration.ofHours(1), 1);
+
+    LikeWriteBehindBufferTest() {
+        when(filmStorage.getExistingIds(anyCollection())).thenReturn(Set.of(1L, 2L));
+        when(userStorage.getExistingIds(anyCollection())).thenReturn(Set.of(10L, 20L));
+    }
+
+    @Test
+    void keepsOnlyLastOperationForPair() throws InterruptedException {
+        buffer.start();
+        buffer.addLike(1L, 10L);
+        buffer.removeLike(1L, 10L);
+        buffer.addLike(2L, 10L);
+
+        assertThat(buffer.size()).isEqualTo(2);
+        buffer.stop();
+
+        verify(filmStorage).addLikes(List.of(new LikePair(2L, 10L)));
+        verify(filmStorage).removeLikes(List.of(new LikePair(1L, 10L)));
+        assertThat(buffer.size()).isZero();
+    }
+
+    @Test
+    void overlayShowsPendingLikes() throws InterruptedException {
+        buffer.start();
+        buffer.addLike(1L, 20L);
+        buffer.removeLike(1L, 10L);
+
+        Film film = Film.builder().id(1L).name("Фильм").likes(LongSet.of(10L)).build();
+
+        assertThat(buffer.overlay(film).getLikes()).containsExactly(20L);
+        assertThat(film.getLikes()).containsExactly(10L);
+        buffer.stop();
+    }
+
+    @Test
+    void callerFlushesWhenBufferIsFull() throws InterruptedException {
+        buffer.start();
+        buffer.addLike(1L, 10L);
+        buffer.addLike(1L, 20L);
+        buffer.addLike(2L, 10L);
+
+        verify(filmStorage).addLikes(any());
+        assertThat(buffer.size()).isEqualTo(1);
+        buffer.stop();
+    }
+
+    @Test
+    void dropsOperationThatKeepsFailing() throws InterruptedException {
+        LikePair poison = new LikePair(1L, 10L);
+        doThrow(new IllegalStateException("ошибка записи")).when(filmStorage)
+                .addLikes(argThat(likes -> likes.contains(poison)));
+        buffer.start();
+        buffer.addLike(1L, 10L);
+        buffer.addLike(2L, 20L);
+
+        buffer.flush();
+        assertThat(buffer.size()).isEqualTo(2);
+        buffer.flush();
+
+        verify(filmStorage).addLikes(List.of(new LikePair(2L, 20L)));
+        assertThat(buffer.size()).isZero();
+        assertThat(buffer.hasPending(1L)).isFalse();
+        buffer.stop();
+    }
+
+    @Test
+    void writesDirectlyWhenNotStarted() {
+        buffer.addLike(1L, 10L);
+
+        verify(filmStorage).addLike(1L, 10L);
+        assertThat(buffer.size()).isZero();
+    }
+}
@@ -0,0 +1,104 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class TrendingIndexTest {
+    private static final Duration HOUR = Duration.ofHours(1);
+    private static final Duration DAY = Duration.ofDays(1);
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+    private final TrendingIndex index = new TrendingIndex(clock, true, Duration.ofMinutes(5), List.of(HOUR, DAY),
+            Duration.ofHours(6));
+
+    @Test
+    void recentLikesOutweighOlderOnes() {
+        index.recordLike(1L, clock.instant().minus(Duration.ofHours(12)));
+        index.recordLike(1L, clock.instant().minus(Duration.ofHours(12)));
+        index.recordLike(1L, clock.instant().minus(Duration.ofHours(12)));
+        index.recordLike(2L);
+
+        assertThat(index.getScore(DAY, 1L)).isCloseTo(0.75, within(1e-9));
+        assertThat(index.getScore(DAY, 2L)).isCloseTo(1.0, within(1e-9));
+        assertThat(index.top(DAY, 10)).containsExactly(2L, 1L);
+        assertThat(index.top(HOUR, 10)).containsExactly(2L);
+    }
+
+    @Test
+    void likesLeaveWindowAsTimePasses() {
+        index.recordLike(1L);
+        index.recordLike(2L);
+        index.recordLike(2L);
+
+        clock.advance(Duration.ofMinutes(30));
+        index.recordLike(1L);
+        assertThat(index.top(HOUR, 10)).containsExactly(1L, 2L);
+
+        clock.advance(Duration.ofMinutes(35));
+        assertThat(index.top(HOUR, 10)).containsExactly(1L);
+        assertThat(index.top(DAY, 10)).containsExactly(1L, 2L);
+
+        clock.advance(Duration.ofDays(2));
+        assertThat(index.top(DAY, 10)).isEmpty();
+    }
+
+    @Test
+    void unlikeRemovesLikeFromItsBucket() {
+        Instant likedAt = clock.instant().minus(Duration.ofHours(2));
+        index.recordLike(1L, likedAt);
+        index.recordLike(2L);
+
+        index.recordUnlike(1L, likedAt);
+        index.recordUnlike(2L, likedAt);
+
+        assertThat(index.top(DAY, 10)).containsExactly(2L);
+        assertThat(index.getScore(DAY, 1L)).isZero();
+    }
+
+    @Test
+    void removeDropsFilmFromAllWindows() {
+        index.recordLike(1L);
+        index.recordLike(2L);
+
+        index.remove(1L);
+
+        assertThat(index.top(HOUR, 10)).containsExactly(2L);
+        assertThat(index.top(DAY, 10)).containsExactly(2L);
+    }
+
+    static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package ru.yandex.practicum.filmorate.storage.genre;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.yandex.practicum.filmorate.dal.genre.GenreResultSetExtractor;
+import ru.yandex.practicum.filmorate.dal.genre.GenreRowMapper;
+import ru.yandex.practicum.filmorate.model.Genre;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@Import({CachedGenreStorage.class, GenreDbStorage.class, GenreResultSetExtractor.class, GenreRowMapper.class})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class CachedGenreStorageTest {
+    @Autowired
+    private CachedGenreStorage cachedGenreStorage;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void getAllSortedById() {
+        List<Genre> genres = cachedGenreStorage.getAll();
+
+        assertThat(genres).hasSize(6);
+        assertThat(genres).extracting(Genre::getId).containsExactly(1L, 2L, 3L, 4L, 5L, 6L);
+    }
+
+    @Test
+    void getGenresByIds() {
+        Optional<List<Genre>> genres = cachedGenreStorage.getGenresByIds(Set.of(1L, 2L));
+        assertThat(genres).isPresent().hasValueSatisfying(list -> assertThat(list).hasSize(2));
+
+        assertThat(cachedGenreStorage.getGenresByIds(Set.of(1L, 999L))).isEmpty();
+    }
+
+    @Test
+    void servesSnapshotUntilReload() {
+        jdbcTemplate.update("UPDATE genres SET name = ? WHERE id = ?", "Комедия абсурда", 1L);
+
+        assertThat(cachedGenreStorage.getById(1)).hasValueSatisfying(genre ->
+                assertThat(genre.getName()).isEqualTo("Комедия"));
+
+        cachedGenreStorage.reload();
+
+        assertThat(cachedGenreStorage.getById(1)).hasValueSatisfying(genre ->
+                assertThat(genre.getName()).isEqualTo("Комедия абсурда"));
+    }
+}
@@ -0,0 +1,41 @@
+package ru.yandex.practicum.filmorate.storage.pool;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class ConnectionLimitingDataSourceTest {
+    private final DataSource target = mock(DataSource.class);
+    private final ConnectionLimitingDataSource dataSource =
+            new ConnectionLimitingDataSource(target, 2, Duration.ofMillis(50));
+
+    @Test
+    void rejectsConnectionsAboveLimitUntilOneIsClosed() throws SQLException {
+        when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+
+        Connection first = dataSource.getConnection();
+        dataSource.getConnection();
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+
+        first.close();
+        first.close();
+        assertThat(dataSource.availablePermits()).isEqualTo(1);
+        assertThat(dataSource.getConnection()).isNotNull();
+    }
+
+    @Test
+    void releasesPermitWhenTargetFails() throws SQLException {
+        when(target.getConnection()).thenThrow(new SQLException("недоступна"));
+
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLException.class);
+        assertThat(dataSource.availablePermits()).isEqualTo(2);
+    }
+}
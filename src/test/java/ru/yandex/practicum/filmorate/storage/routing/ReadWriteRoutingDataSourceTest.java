@@ -0,0 +1,139 @@
+package ru.yandex.practicum.filmorate.storage.routing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.config.DataSourceRoutingConfig;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@SpringJUnitConfig(ReadWriteRoutingDataSourceTest.Config.class)
+class ReadWriteRoutingDataSourceTest {
+    private final ReadWriteRoutingDataSource router =
+            new ReadWriteRoutingDataSource(mock(DataSource.class), mock(DataSource.class));
+
+    @Autowired
+    @Qualifier("readWriteDataSource")
+    private DataSource readWrite;
+
+    @Autowired
+    @Qualifier("readOnlyDataSource")
+    private DataSource readOnly;
+
+    @Autowired
+    private LikesRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        // Прокси при создании один раз берет соединение из основного пула, чтобы узнать настройки по умолчанию
+        clearInvocations(readWrite, readOnly);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadOnlyRouting.clear();
+    }
+
+    @Test
+    void routesToReadWriteByDefault() {
+        assertThat(router.determineCurrentLookupKey()).isEqualTo(ReadWriteRoutingDataSource.Route.READ_WRITE);
+    }
+
+    @Test
+    void routesMarkedRequestToReadOnly() {
+        ReadOnlyRouting.markReadOnly();
+
+        assertThat(router.determineCurrentLookupKey()).isEqualTo(ReadWriteRoutingDataSource.Route.READ_ONLY);
+    }
+
+    @Test
+    void writeTransactionWinsOverReadOnlyRequest() throws SQLException {
+        ReadOnlyRouting.markReadOnly();
+
+        repository.write();
+
+        verify(readWrite).getConnection();
+        verify(readOnly, never()).getConnection();
+    }
+
+    @Test
+    void readOnlyTransactionUsesReadOnlyPool() throws SQLException {
+        ReadOnlyRouting.markReadOnly();
+
+        repository.read();
+
+        verify(readOnly).getConnection();
+        verify(readWrite, never()).getConnection();
+    }
+
+    @Configuration
+    @EnableTransactionManagement
+    static class Config {
+        @Bean
+        DataSource readWriteDataSource() throws SQLException {
+            return pool();
+        }
+
+        @Bean
+        DataSource readOnlyDataSource() throws SQLException {
+            return pool();
+        }
+
+        @Bean
+        @Primary
+        DataSource dataSource(@Qualifier("readWriteDataSource") DataSource readWrite,
+                              @Qualifier("readOnlyDataSource") DataSource readOnly) {
+            return new DataSourceRoutingConfig().dataSource(readWrite, readOnly);
+        }
+
+        @Bean
+        PlatformTransactionManager transactionManager(DataSource dataSource) {
+            return new DataSourceTransactionManager(dataSource);
+        }
+
+        @Bean
+        LikesRepository likesRepository(DataSource dataSource) {
+            return new LikesRepository(dataSource);
+        }
+
+        private static DataSource pool() throws SQLException {
+            DataSource dataSource = mock(DataSource.class);
+            when(dataSource.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+            return dataSource;
+        }
+    }
+
+    static class LikesRepository {
+        private final DataSource dataSource;
+
+        LikesRepository(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        @Transactional
+        public void write() throws SQLException {
+            DataSourceUtils.getConnection(dataSource).createStatement();
+        }
+
+        @Transactional(readOnly = true)
+        public void read() throws SQLException {
+            DataSourceUtils.getConnection(dataSource).createStatement();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package ru.yandex.practicum.filmorate.storage.seed;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+class DataSeederTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void seedWritesRequestedVolumes() {
+        SeedResult result = new DataSeeder(jdbcTemplate).seed(new SeedSpec(200, 50, 3000, 5, 1.0, 7));
+
+        assertThat(count("users")).isEqualTo(200);
+        assertThat(count("films")).isEqualTo(50);
+        assertThat(count("film_likes")).isEqualTo(3000).isEqualTo(result.likes());
+        assertThat(count("friends")).isEqualTo(result.friends());
+        assertThat(jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM films f
+                WHERE f.likes_count <> (SELECT COUNT(*) FROM film_likes l WHERE l.film_id = f.id)
+                """, Long.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM friends WHERE user_id = friend_id",
+                Long.class)).isZero();
+    }
+
+    @Test
+    void likesFollowPowerLawAndAreReproducible() {
+        int[] first = DataSeeder.distributeLikes(100_000, 1000, 500, 1.0, new Random(42));
+        int[] second = DataSeeder.distributeLikes(100_000, 1000, 500, 1.0, new Random(42));
+
+        assertThat(first).isEqualTo(second);
+        assertThat(Arrays.stream(first).asLongStream().sum()).isEqualTo(100_000);
+        assertThat(Arrays.stream(first).max().orElseThrow()).isLessThanOrEqualTo(500);
+
+        int[] sorted = first.clone();
+        Arrays.sort(sorted);
+        assertThat(sorted[sorted.length - 1]).isGreaterThan(sorted[sorted.length / 2] * 5);
+    }
+
+    private long count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+    }
+}
@@ -0,0 +1,46 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FriendGraphTest {
+    private final FriendGraph graph = new FriendGraph();
+
+    @Test
+    void loadSortsAndDeduplicatesFriends() {
+        graph.load(Map.of(1L, new long[]{5L, 3L, 5L, 2L}));
+
+        assertThat(graph.getFriends(1L)).containsExactly(2L, 3L, 5L);
+        assertThat(graph.getFriends(2L)).isEmpty();
+    }
+
+    @Test
+    void commonFriendsIsIntersection() {
+        graph.addFriend(1L, 3L);
+        graph.addFriend(1L, 4L);
+        graph.addFriend(1L, 6L);
+        graph.addFriend(2L, 6L);
+        graph.addFriend(2L, 3L);
+        graph.addFriend(2L, 5L);
+
+        assertThat(graph.getCommonFriends(1L, 2L)).containsExactly(3L, 6L);
+        assertThat(graph.getCommonFriends(1L, 7L)).isEmpty();
+    }
+
+    @Test
+    void removeFriendAndUser() {
+        graph.addFriend(1L, 2L);
+        graph.addFriend(1L, 3L);
+        graph.addFriend(3L, 2L);
+
+        graph.removeFriend(1L, 3L);
+        assertThat(graph.getFriends(1L)).containsExactly(2L);
+
+        graph.removeUser(2L);
+        assertThat(graph.getFriends(1L)).isEmpty();
+        assertThat(graph.getFriends(3L)).isEmpty();
+    }
+}
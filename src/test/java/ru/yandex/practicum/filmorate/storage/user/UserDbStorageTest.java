@@ -12,11 +12,16 @@ import ru.yandex.practicum.filmorate.dal.film.FilmRowMapper;
 import ru.yandex.practicum.filmorate.dal.user.UserResultSetExtractor;
 import ru.yandex.practicum.filmorate.dal.user.UserRowMapper;
 import ru.yandex.practicum.filmorate.dto.UserFriendDto;
+import ru.yandex.practicum.filmorate.exception.AlreadyExistsException;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.film.FilmPopularityIndex;
+import ru.yandex.practicum.filmorate.storage.film.TrendingIndex;
 import ru.yandex.practicum.filmorate.utils.RandomUtils;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -25,7 +30,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 @JdbcTest
 @AutoConfigureTestDatabase
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
-@Import({FilmDbStorage.class, UserDbStorage.class, FilmResultSetExtractor.class, FilmRowMapper.class, UserResultSetExtractor.class, UserRowMapper.class})
+@Import({FilmDbStorage.class, FilmPopularityIndex.class, TrendingIndex.class, UserDbStorage.class, FriendGraph.class, FilmResultSetExtractor.class, FilmRowMapper.class, UserResultSetExtractor.class, UserRowMapper.class})
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
 class UserDbStorageTest {
     @Autowired
@@ -55,6 +60,15 @@ class UserDbStorageTest {
         assertThat(updatedUser.getLogin()).isEqualTo("Updated login");
     }
 
+    @Test
+    void updateWithTakenEmailFails() {
+        User user1 = userDbStorage.create(randomUtils.getUser());
+        User user2 = userDbStorage.create(randomUtils.getUser());
+        user2.setEmail(user1.getEmail());
+
+        assertThrows(AlreadyExistsException.class, () -> userDbStorage.update(user2));
+    }
+
     @Test
     void getUserById() {
         User user = userDbStorage.create(randomUtils.getUser());
@@ -68,6 +82,23 @@ class UserDbStorageTest {
                 );
     }
 
+    @Test
+    void findByEmail() {
+        User user = userDbStorage.create(randomUtils.getUser());
+        User friend = userDbStorage.create(randomUtils.getUser());
+        userDbStorage.addFriend(user.getId(), friend.getId());
+
+        Optional<User> found = userDbStorage.findByEmail(user.getEmail());
+
+        assertThat(found)
+                .isPresent()
+                .hasValueSatisfying(u -> {
+                    assertThat(u.getId()).isEqualTo(user.getId());
+                    assertThat(u.getFriends()).containsOnlyKeys(friend.getId());
+                });
+        assertThat(userDbStorage.findByEmail("missing@mail.ru")).isNotPresent();
+    }
+
     @Test
     void getAll() {
         userDbStorage.create(randomUtils.getUser());
@@ -77,6 +108,50 @@ class UserDbStorageTest {
         assertThat(allUsers.size()).isGreaterThanOrEqualTo(2);
     }
 
+    @Test
+    void getPage() {
+        User user1 = userDbStorage.create(randomUtils.getUser());
+        User user2 = userDbStorage.create(randomUtils.getUser());
+        User user3 = userDbStorage.create(randomUtils.getUser());
+        userDbStorage.addFriend(user1.getId(), user2.getId());
+        userDbStorage.addFriend(user1.getId(), user3.getId());
+
+        Collection<User> firstPage = userDbStorage.getPage(0, 2);
+        assertThat(firstPage).extracting(User::getId).containsExactly(user1.getId(), user2.getId());
+        assertThat(firstPage.iterator().next().getFriends()).hasSize(2);
+
+        Collection<User> secondPage = userDbStorage.getPage(user2.getId(), 2);
+        assertThat(secondPage).extracting(User::getId).containsExactly(user3.getId());
+    }
+
+    @Test
+    void streamAll() {
+        User user1 = userDbStorage.create(randomUtils.getUser());
+        User user2 = userDbStorage.create(randomUtils.getUser());
+        User user3 = userDbStorage.create(randomUtils.getUser());
+        userDbStorage.addFriend(user1.getId(), user2.getId());
+        userDbStorage.addFriend(user1.getId(), user3.getId());
+        userDbStorage.addFriend(user3.getId(), user1.getId());
+
+        List<User> streamed = new ArrayList<>();
+        userDbStorage.streamAll(streamed::add);
+
+        assertThat(streamed).extracting(User::getId)
+                .containsExactly(user1.getId(), user2.getId(), user3.getId());
+        assertThat(streamed.get(0).getFriends()).containsOnlyKeys(user2.getId(), user3.getId());
+        assertThat(streamed.get(1).getFriends()).isEmpty();
+        assertThat(streamed.get(2).getFriends()).containsOnlyKeys(user1.getId());
+    }
+
+    @Test
+    void exists() {
+        User user1 = userDbStorage.create(randomUtils.getUser());
+        User user2 = userDbStorage.create(randomUtils.getUser());
+
+        assertThat(userDbStorage.exists(user1.getId())).isTrue();
+        assertThat(userDbStorage.exists(user2.getId() + 1)).isFalse();
+    }
+
     @Test
     void delete() {
         User user = userDbStorage.create(randomUtils.getUser());
@@ -93,8 +168,20 @@ class UserDbStorageTest {
 
         userDbStorage.addFriend(user1.getId(), user2.getId());
 
-        boolean relationshipExists = userDbStorage.checkRelationship(user1.getId(), user2.getId());
-        assertTrue(relationshipExists);
+        assertThat(userDbStorage.getFriends(user1.getId())).extracting(UserFriendDto::getId)
+                .containsExactly(user2.getId());
+    }
+
+    @Test
+    void friendWritesAreIdempotent() {
+        User user1 = userDbStorage.create(randomUtils.getUser());
+        User user2 = userDbStorage.create(randomUtils.getUser());
+
+        assertTrue(userDbStorage.addFriend(user1.getId(), user2.getId()));
+        assertFalse(userDbStorage.addFriend(user1.getId(), user2.getId()));
+
+        assertTrue(userDbStorage.deleteFriend(user1.getId(), user2.getId()));
+        assertFalse(userDbStorage.deleteFriend(user1.getId(), user2.getId()));
     }
 
     @Test
@@ -113,18 +200,6 @@ class UserDbStorageTest {
                 );
     }
 
-    @Test
-    void checkRelationship() {
-        User user1 = userDbStorage.create(randomUtils.getUser());
-        User user2 = userDbStorage.create(randomUtils.getUser());
-
-        userDbStorage.addFriend(user1.getId(), user2.getId());
-        userDbStorage.deleteFriend(user1.getId(), user2.getId());
-
-        boolean relationshipExists = userDbStorage.checkRelationship(user1.getId(), user2.getId());
-        assertFalse(relationshipExists);
-    }
-
     @Test
     void deleteFriend() {
         User user1 = userDbStorage.create(randomUtils.getUser());
@@ -133,8 +208,7 @@ class UserDbStorageTest {
         userDbStorage.addFriend(user1.getId(), user2.getId());
         userDbStorage.deleteFriend(user1.getId(), user2.getId());
 
-        boolean relationshipExists = userDbStorage.checkRelationship(user1.getId(), user2.getId());
-        assertFalse(relationshipExists);
+        assertThat(userDbStorage.getFriends(user1.getId())).isEmpty();
     }
 
     @Test
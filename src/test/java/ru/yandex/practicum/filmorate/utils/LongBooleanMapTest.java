@@ -0,0 +1,48 @@
+package ru.yandex.practicum.filmorate.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongBooleanMapTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void putReplacesValueAndKeepsKeysSorted() {
+        LongBooleanMap map = new LongBooleanMap();
+
+        map.put(7L, false);
+        map.put(2L, true);
+        map.put(7L, true);
+
+        assertThat(map.keysToArray()).containsExactly(2L, 7L);
+        assertThat(map.getBoolean(7L)).isTrue();
+        assertThat(map.getBoolean(3L)).isFalse();
+        assertThat(map.get(3L)).isNull();
+        assertThat(map).isEqualTo(Map.of(2L, true, 7L, true));
+    }
+
+    @Test
+    void removeDropsKey() {
+        LongBooleanMap map = new LongBooleanMap();
+        map.put(1L, true);
+        map.put(2L, false);
+
+        assertThat(map.remove((Object) 1L)).isTrue();
+
+        assertThat(map).containsOnlyKeys(2L);
+    }
+
+    @Test
+    void serializesAsJsonObject() throws Exception {
+        LongBooleanMap map = new LongBooleanMap();
+        map.put(2L, false);
+        map.put(1L, true);
+
+        assertThat(objectMapper.writeValueAsString(map)).isEqualTo("{\"1\":true,\"2\":false}");
+        assertThat(objectMapper.readValue("{\"5\":true}", LongBooleanMap.class)).isEqualTo(Map.of(5L, true));
+    }
+}
@@ -0,0 +1,44 @@
+package ru.yandex.practicum.filmorate.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongSetTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void keepsValuesSortedAndDistinct() {
+        LongSet set = new LongSet();
+
+        assertThat(set.add(5L)).isTrue();
+        assertThat(set.add(1L)).isTrue();
+        assertThat(set.add(9L)).isTrue();
+        assertThat(set.add(5L)).isFalse();
+        assertThat(set.remove(1L)).isTrue();
+
+        assertThat(set.toLongArray()).containsExactly(5L, 9L);
+        assertThat(set.contains(9L)).isTrue();
+        assertThat(set).isEqualTo(Set.of(5L, 9L)).hasSameHashCodeAs(Set.of(5L, 9L));
+    }
+
+    @Test
+    void iteratorRemovesValues() {
+        LongSet set = LongSet.of(3L, 1L, 2L, 1L);
+
+        set.removeIf(value -> value % 2 == 1);
+
+        assertThat(set).containsExactly(2L);
+    }
+
+    @Test
+    void serializesAsJsonArray() throws Exception {
+        String json = objectMapper.writeValueAsString(LongSet.of(3L, 1L));
+
+        assertThat(json).isEqualTo("[1,3]");
+        assertThat(objectMapper.readValue("[3,1,3]", LongSet.class).toLongArray()).containsExactly(1L, 3L);
+    }
+}
@@ -0,0 +1,8 @@
+DELETE FROM film_likes;
+DELETE FROM friends;
+DELETE FROM film_genres;
+DELETE FROM users;
+DELETE FROM films;
+
+ALTER TABLE users ALTER COLUMN id RESTART WITH 1;
+ALTER TABLE films ALTER COLUMN id RESTART WITH 1;